@@ -19,6 +19,10 @@ public class UserEventConsumer {
 
     @KafkaListener(topics = "user-events", groupId = "notification-group")
     public void consume(UserEvent event) {
+        if (UserEvent.UPDATE.equals(event.action())) {
+            log.debug("Skipping {} event for email {}", event.action(), event.email());
+            return;
+        }
         try {
             log.info("Received event: {} for email {}", event.action(), event.email());
             emailNotificationService.sendNotification(event);
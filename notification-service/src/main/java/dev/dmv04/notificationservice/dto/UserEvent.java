@@ -20,6 +20,7 @@ public record UserEvent(
         String action
 ) {
     public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
     public static final String DELETE = "DELETE";
 
     @JsonCreator
@@ -1,11 +1,22 @@
 package dev.dmv04.userservice;
 
+import dev.dmv04.userservice.reactive.ReactiveUserServiceApplication;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+/**
+ * Сервлетный стек (Spring MVC + JPA). С активным профилем reactive запускается
+ * {@link ReactiveUserServiceApplication} с тем же контрактом /api/users на WebFlux и R2DBC.
+ */
+// R2DBC нужен только реактивному стеку: второй менеджер транзакций сделал бы @Transactional неоднозначным
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class Application {
     public static void main(String[] args) {
+        if (ReactiveUserServiceApplication.isSelected(args)) {
+            ReactiveUserServiceApplication.main(args);
+            return;
+        }
         SpringApplication.run(Application.class, args);
     }
 }
@@ -0,0 +1,230 @@
+package dev.dmv04.userservice.cache;
+
+import dev.dmv04.userservice.repository.UserExportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Фильтр Блума по всем email пользователей. Ответ «точно нет» позволяет не проверять занятость
+ * email запросом к БД; ответ «возможно» требует обычной проверки. Фильтр загружается потоковым
+ * чтением таблицы после старта и перестраивается раз в rebuild-interval, чтобы избавиться
+ * от удалённых email. До окончания первой загрузки и при users.email-filter.enabled=false
+ * фильтр всегда отвечает «возможно».
+ * <p>
+ * Email добавляются после коммита: строка, видимая при перестроении, уже попала в скан,
+ * а закоммиченная позже добавляется и в строящийся фильтр. Email, созданные другими
+ * репликами, приходят через события user-events.
+ */
+@Component
+public class EmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailFilter.class);
+
+    private final UserExportRepository userExportRepository;
+    private final TransactionTemplate scanTransaction;
+    private final boolean enabled;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final Duration rebuildInterval;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong removed = new AtomicLong();
+    private final Counter absent;
+    private final Counter maybePresent;
+
+    private volatile ScalableBloomFilter current;
+    private volatile ScalableBloomFilter building;
+
+    public EmailFilter(UserExportRepository userExportRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${users.email-filter.enabled:true}") boolean enabled,
+                       @Value("${users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                       @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                       @Value("${users.email-filter.max-memory:64MB}") DataSize maxMemory,
+                       @Value("${users.email-filter.rebuild-interval:6h}") Duration rebuildInterval,
+                       MeterRegistry meterRegistry) {
+        this.userExportRepository = userExportRepository;
+        // не read-only: при включённых репликах скан должен читать основную БД, иначе отстающая
+        // реплика пропустит email, закоммиченные до начала перестроения
+        this.scanTransaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxMemory.toBytes();
+        this.rebuildInterval = rebuildInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-email-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.absent = Counter.builder("users.email-filter.checks")
+                .description("Проверки email по фильтру Блума")
+                .tag("result", "absent")
+                .register(meterRegistry);
+        this.maybePresent = Counter.builder("users.email-filter.checks")
+                .description("Проверки email по фильтру Блума")
+                .tag("result", "maybe-present")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.bytes", this, EmailFilter::sizeInBytes)
+                .description("Память, занятая фильтром Блума email")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.entries", this, EmailFilter::size)
+                .description("Email, добавленные в фильтр Блума с последней загрузки")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.false-positive-rate", this, EmailFilter::expectedFalsePositiveRate)
+                .description("Оценка доли ложных срабатываний по заполненности фильтра")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.false-positive-rate.target", () -> falsePositiveRate)
+                .description("Настроенная доля ложных срабатываний")
+                .register(meterRegistry);
+        Gauge.builder("users.email-filter.removed", removed, AtomicLong::get)
+                .description("Удалённые email, остающиеся в фильтре до перестроения")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * false означает, что email точно не занят (на момент последнего коммита, о котором
+     * знает эта реплика); true — что нужна проверка в БД.
+     */
+    public boolean mightContain(String email) {
+        ScalableBloomFilter filter = current;
+        if (filter == null || filter.mightContain(email)) {
+            maybePresent.increment();
+            return true;
+        }
+        absent.increment();
+        return false;
+    }
+
+    /**
+     * Добавляет email сразу; вызывается для изменений, уже закоммиченных в БД.
+     */
+    public void add(String email) {
+        // building читается первым: после подмены current уже указывает на новый фильтр
+        ScalableBloomFilter next = building;
+        if (next != null) {
+            next.add(email);
+        }
+        ScalableBloomFilter filter = current;
+        if (filter != null && filter != next) {
+            filter.add(email);
+        }
+    }
+
+    /**
+     * Добавляет email после коммита текущей транзакции.
+     */
+    public void addAfterCommit(Collection<String> emails) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emails.forEach(this::add);
+            return;
+        }
+        List<String> copy = List.copyOf(emails);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                copy.forEach(EmailFilter.this::add);
+            }
+        });
+    }
+
+    public void addAfterCommit(String email) {
+        addAfterCommit(List.of(email));
+    }
+
+    /**
+     * Учитывает удалённый email: из фильтра он пропадёт только при следующем перестроении.
+     */
+    public void recordRemoval() {
+        recordRemovals(1);
+    }
+
+    public void recordRemovals(int count) {
+        if (enabled) {
+            removed.addAndGet(count);
+        }
+    }
+
+    public boolean isLoaded() {
+        return current != null;
+    }
+
+    /**
+     * Строит новый фильтр потоковым чтением всех email и подменяет им текущий. Изменения,
+     * закоммиченные во время чтения, попадают в новый фильтр через {@link #add}.
+     */
+    public void rebuild() {
+        long previousSize = current != null ? current.size() - removed.get() : 0;
+        ScalableBloomFilter next = new ScalableBloomFilter(
+                Math.max(expectedInsertions, previousSize * 2), falsePositiveRate, maxBytes);
+        long removedBefore = removed.get();
+        building = next;
+        try {
+            long started = System.nanoTime();
+            scanTransaction.executeWithoutResult(status -> userExportRepository.forEachEmail(next::add));
+            current = next;
+            removed.addAndGet(-removedBefore);
+            logger.info("Email filter rebuilt: {} entries, {} bytes in {} ms", next.size(), next.sizeInBytes(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            logger.warn("Email filter rebuild failed, keeping previous filter", e);
+        } finally {
+            building = null;
+        }
+    }
+
+    private double sizeInBytes() {
+        ScalableBloomFilter filter = current;
+        return filter != null ? filter.sizeInBytes() : 0;
+    }
+
+    private double size() {
+        ScalableBloomFilter filter = current;
+        return filter != null ? filter.size() : 0;
+    }
+
+    private double expectedFalsePositiveRate() {
+        ScalableBloomFilter filter = current;
+        return filter != null ? filter.expectedFalsePositiveRate() : 1;
+    }
+}
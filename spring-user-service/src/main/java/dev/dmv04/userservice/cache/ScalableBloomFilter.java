@@ -0,0 +1,181 @@
+package dev.dmv04.userservice.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Масштабируемый фильтр Блума (Almeida и др.): при заполнении очередной секции добавляется новая
+ * вдвое большей ёмкости с вдвое меньшей долей ложных срабатываний, поэтому суммарная доля
+ * не превышает falsePositiveRate при любом числе элементов. Рост ограничен maxBytes; после
+ * этого элементы продолжают добавляться в последнюю секцию, и доля ложных срабатываний растёт.
+ * Ложноотрицательных ответов не бывает. Потокобезопасен без блокировок на чтении и записи.
+ */
+class ScalableBloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final double falsePositiveRate;
+    private final long maxBytes;
+    private final List<Stage> stages = new CopyOnWriteArrayList<>();
+    private volatile Stage last;
+
+    ScalableBloomFilter(long expectedInsertions, double falsePositiveRate, long maxBytes) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be in (0, 1)");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBytes = maxBytes;
+        long maxCapacity = (long) (maxBytes * 8 * LN2 * LN2 / -Math.log(falsePositiveRate / 2));
+        this.last = new Stage(Math.max(1, Math.min(expectedInsertions, maxCapacity)), falsePositiveRate / 2);
+        this.stages.add(last);
+    }
+
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        for (Stage stage : stages) {
+            if (stage.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        Stage stage = last;
+        stage.add(hash);
+        if (stage.count.incrementAndGet() >= stage.capacity) {
+            grow(stage);
+        }
+    }
+
+    /**
+     * Количество добавлений, включая повторные.
+     */
+    long size() {
+        long size = 0;
+        for (Stage stage : stages) {
+            size += stage.count.get();
+        }
+        return size;
+    }
+
+    long sizeInBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Оценка текущей доли ложных срабатываний по фактической заполненности секций.
+     */
+    double expectedFalsePositiveRate() {
+        double allMiss = 1;
+        for (Stage stage : stages) {
+            allMiss *= 1 - stage.expectedFalsePositiveRate();
+        }
+        return 1 - allMiss;
+    }
+
+    private synchronized void grow(Stage full) {
+        if (full != last) {
+            return;
+        }
+        Stage next = new Stage(full.capacity * 2, full.falsePositiveRate / 2);
+        if (sizeInBytes() + next.sizeInBytes() > maxBytes) {
+            return;
+        }
+        stages.add(next);
+        last = next;
+    }
+
+    double falsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    /**
+     * 64-битный FNV-1a по UTF-8 с финальным перемешиванием из MurmurHash3.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Stage {
+
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final long bitCount;
+        private final int hashCount;
+        private final AtomicLongArray words;
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong bitsSet = new AtomicLong();
+
+        private Stage(long capacity, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = wordCount * 64L;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+        }
+
+        // двойное хеширование Кирша–Митценмахера: i-й индекс = hash + i * h2
+        private boolean mightContain(long hash) {
+            long h2 = mix(hash ^ 0x9e3779b97f4a7c15L);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(hash + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void add(long hash) {
+            long h2 = mix(hash ^ 0x9e3779b97f4a7c15L);
+            for (int i = 1; i <= hashCount; i++) {
+                long bit = index(hash + i * h2);
+                long mask = 1L << bit;
+                long previous = words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+                if ((previous & mask) == 0) {
+                    bitsSet.incrementAndGet();
+                }
+            }
+        }
+
+        private long index(long combined) {
+            return (combined & Long.MAX_VALUE) % bitCount;
+        }
+
+        private long sizeInBytes() {
+            return words.length() * 8L;
+        }
+
+        private double expectedFalsePositiveRate() {
+            return Math.pow((double) bitsSet.get() / bitCount, hashCount);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package dev.dmv04.userservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Кэш готовых сериализованных страниц коллекции пользователей. Ключ включает версию
+ * из {@link UsersGeneration}, поэтому после любого изменения старые страницы больше не читаются
+ * и вытесняются по размеру или TTL.
+ */
+@Component
+public class UserPageCache {
+
+    private final Cache<Key, Page> cache;
+
+    public UserPageCache(@Value("${users.page-cache.maximum-bytes:67108864}") long maximumBytes,
+                         @Value("${users.page-cache.expire-after-write:5m}") Duration expireAfterWrite,
+                         MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Page page) -> page.body().length)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user-pages");
+        Gauge.builder("users.page-cache.bytes", this, UserPageCache::weightedSize)
+                .description("Размер закэшированных страниц пользователей в байтах")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Page get(Key key) {
+        return cache.getIfPresent(key);
+    }
+
+    public void put(Key key, Page page) {
+        cache.put(key, page);
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long weightedSize() {
+        return cache.policy().eviction()
+                .map(eviction -> eviction.weightedSize().orElse(0L))
+                .orElse(0L);
+    }
+
+    public record Key(long generation, String baseUri, String parameters, String accept) {
+    }
+
+    public record Page(String contentType, byte[] body) {
+    }
+}
@@ -0,0 +1,94 @@
+package dev.dmv04.userservice.cache;
+
+import dev.dmv04.userservice.datasource.ReadConsistency;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Отдаёт страницы GET /api/users (запросы с after или limit) из {@link UserPageCache} без обращения к контроллеру. При промахе
+ * запрос обрабатывается как обычно, а тело ответа сохраняется, если за время запроса
+ * пользователи не менялись и страница не прочитана с реплики, которая могла отставать
+ * ({@link ReadConsistency}). Запросы без after и limit возвращают всю таблицу и не кэшируются:
+ * такой ответ занял бы весь бюджет кэша и вытеснил страницы.
+ * <p>
+ * Ссылки HAL в теле абсолютные и строятся от адреса запроса (Host, X-Forwarded-* после
+ * обработки forward-headers-strategy), поэтому базовый URI входит в ключ так же, как его
+ * вычисляет {@link dev.dmv04.userservice.controller.UserLinks}.
+ */
+@Component
+@ConditionalOnProperty(name = "users.page-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class UserPageCacheFilter extends OncePerRequestFilter {
+
+    private static final String USERS_PATH = "/api/users";
+
+    private final UserPageCache userPageCache;
+    private final UsersGeneration usersGeneration;
+
+    public UserPageCacheFilter(UserPageCache userPageCache, UsersGeneration usersGeneration) {
+        this.userPageCache = userPageCache;
+        this.usersGeneration = usersGeneration;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod())
+                || !USERS_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()))
+                || (request.getParameter("after") == null && request.getParameter("limit") == null);
+    }
+
+    private static String parameters(HttpServletRequest request) {
+        StringBuilder parameters = new StringBuilder();
+        new TreeMap<>(request.getParameterMap()).forEach((name, values) ->
+                parameters.append(name).append('=').append(String.join(",", values)).append('&'));
+        return parameters.toString();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        long generation = usersGeneration.current();
+        UserPageCache.Key key = new UserPageCache.Key(
+                generation,
+                ServletUriComponentsBuilder.fromServletMapping(request).build().toUriString(),
+                parameters(request),
+                Objects.toString(request.getHeader(HttpHeaders.ACCEPT), ""));
+
+        UserPageCache.Page page = userPageCache.get(key);
+        if (page != null) {
+            response.setStatus(HttpStatus.OK.value());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            response.setContentType(page.contentType());
+            response.setContentLength(page.body().length);
+            response.getOutputStream().write(page.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value()
+                    && wrapper.getContentType() != null
+                    && usersGeneration.current() == generation
+                    && !ReadConsistency.isPossiblyStale()) {
+                userPageCache.put(key, new UserPageCache.Page(wrapper.getContentType(), wrapper.getContentAsByteArray()));
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dev.dmv04.userservice.cache;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Глобальный счётчик версий таблицы пользователей. Любое изменение пользователей увеличивает
+ * его, что делает недействительными все закэшированные страницы коллекции.
+ */
+@Component
+public class UsersGeneration {
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastChangeNanos = System.nanoTime();
+
+    public long current() {
+        return generation.get();
+    }
+
+    public void increment() {
+        generation.incrementAndGet();
+        lastChangeNanos = System.nanoTime();
+    }
+
+    /**
+     * Время с последнего изменения пользователей (с запуска, если изменений не было).
+     * Отсчитывается и от начала коммита, и от его завершения.
+     */
+    public long nanosSinceLastChange() {
+        return System.nanoTime() - lastChangeNanos;
+    }
+
+    /**
+     * Увеличивает счётчик по завершении текущей транзакции, чтобы чтение, начатое до коммита,
+     * не сохранило старые данные под новой версией.
+     */
+    public void incrementAfterCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lastChangeNanos = System.nanoTime();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                increment();
+            }
+        });
+    }
+}
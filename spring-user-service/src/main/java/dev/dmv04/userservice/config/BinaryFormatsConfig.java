@@ -0,0 +1,42 @@
+package dev.dmv04.userservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.mediatype.hal.HalMediaTypeConfiguration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Бинарные форматы application/cbor и application/x-jackson-smile для межсервисных вызовов.
+ * Конвертеры используют копию ObjectMapper приложения с HAL-настройками, поэтому ответы
+ * имеют ту же структуру (_embedded, _links), что и application/hal+json.
+ * Конвертеры Spring MVC по умолчанию для этих форматов заменяются: они строят свой
+ * ObjectMapper без HAL-модуля.
+ */
+@Configuration
+public class BinaryFormatsConfig implements WebMvcConfigurer {
+
+    private final ObjectMapper objectMapper;
+    private final HalMediaTypeConfiguration halMediaTypeConfiguration;
+
+    public BinaryFormatsConfig(ObjectMapper objectMapper, HalMediaTypeConfiguration halMediaTypeConfiguration) {
+        this.objectMapper = objectMapper;
+        this.halMediaTypeConfiguration = halMediaTypeConfiguration;
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(
+                halMediaTypeConfiguration.configureObjectMapper(objectMapper.copyWith(new CBORFactory()))));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(
+                halMediaTypeConfiguration.configureObjectMapper(objectMapper.copyWith(new SmileFactory()))));
+    }
+}
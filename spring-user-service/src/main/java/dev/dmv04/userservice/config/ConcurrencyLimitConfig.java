@@ -0,0 +1,65 @@
+package dev.dmv04.userservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dmv04.userservice.limiter.AdaptiveConcurrencyLimit;
+import dev.dmv04.userservice.limiter.ConcurrencyLimitInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Адаптивное ограничение параллельных запросов к /api/users с раздельными лимитами
+ * для чтения и записи. Включается свойством users.concurrency-limit.enabled.
+ * Экспорт, импорт и пакетное создание под лимит не попадают: один такой запрос держит слот
+ * секунды и минуты, его время ответа сбивало бы оценку RTT, а сам запрос занимал бы место
+ * десятков коротких. Массовое удаление делит путь с обычными запросами и исключается
+ * аннотацией {@link dev.dmv04.userservice.limiter.ConcurrencyLimited} на методе контроллера.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.concurrency-limit.enabled", havingValue = "true")
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimitConfig implements WebMvcConfigurer {
+
+    public static final String[] LIMITED_PATHS = {"/api/users", "/api/users/**"};
+    public static final String[] EXCLUDED_PATHS = {
+            "/api/users/export", "/api/users/import", "/api/users/batch", "/api/users/error-test/**"
+    };
+
+    private final ConcurrencyLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitConfig(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit readConcurrencyLimit() {
+        return new AdaptiveConcurrencyLimit("read", properties.read(), properties, meterRegistry);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimit writeConcurrencyLimit() {
+        return new AdaptiveConcurrencyLimit("write", properties.write(), properties, meterRegistry);
+    }
+
+    @Bean
+    public ConcurrencyLimitInterceptor concurrencyLimitInterceptor() {
+        return new ConcurrencyLimitInterceptor(readConcurrencyLimit(), writeConcurrencyLimit(),
+                properties.retryAfter(), objectMapper);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(concurrencyLimitInterceptor())
+                .addPathPatterns(LIMITED_PATHS)
+                .excludePathPatterns(EXCLUDED_PATHS);
+    }
+}
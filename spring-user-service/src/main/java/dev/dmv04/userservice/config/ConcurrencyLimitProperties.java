@@ -0,0 +1,45 @@
+package dev.dmv04.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки адаптивного ограничения параллельных запросов к /api/users (users.concurrency-limit).
+ *
+ * @param read          лимит для GET и HEAD
+ * @param write         лимит для изменяющих запросов
+ * @param retryAfter    значение Retry-After в ответе 503
+ * @param rttTolerance  во сколько раз задержка может превысить базовую, прежде чем лимит начнёт снижаться
+ * @param smoothing     доля нового значения при пересчёте лимита (0–1)
+ * @param longWindow    число окон, по которым сглаживается базовая задержка
+ * @param window        минимальная длительность окна замера задержки
+ * @param windowSamples минимальное число запросов в окне
+ * @param backoffRatio  множитель лимита после окна с отказом из-за перегрузки
+ */
+@ConfigurationProperties("users.concurrency-limit")
+public record ConcurrencyLimitProperties(
+        @DefaultValue Limit read,
+        @DefaultValue Limit write,
+        @DefaultValue("1s") Duration retryAfter,
+        @DefaultValue("1.5") double rttTolerance,
+        @DefaultValue("0.2") double smoothing,
+        @DefaultValue("600") int longWindow,
+        @DefaultValue("100ms") Duration window,
+        @DefaultValue("10") int windowSamples,
+        @DefaultValue("0.9") double backoffRatio
+) {
+
+    /**
+     * @param initialLimit лимит до первых замеров
+     * @param minLimit     ниже этого лимит не опускается
+     * @param maxLimit     выше этого лимит не поднимается
+     */
+    public record Limit(
+            @DefaultValue("20") int initialLimit,
+            @DefaultValue("4") int minLimit,
+            @DefaultValue("200") int maxLimit
+    ) {
+    }
+}
@@ -0,0 +1,47 @@
+package dev.dmv04.userservice.config;
+
+import dev.dmv04.userservice.datasource.DbGateDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Шлюз БД: оборачивает основной DataSource в {@link DbGateDataSource}. Обычно это бин dataSource;
+ * при чтении из реплик (users.replicas.enabled) — бин primaryDataSource под маршрутизатором,
+ * чтобы лимит, рассчитанный на пул основной БД, не распространялся на чтение из реплик
+ * со своими пулами.
+ * Нужен прежде всего с виртуальными потоками (spring.threads.virtual.enabled), когда число
+ * одновременных запросов больше не ограничено пулом потоков Tomcat.
+ * Включается свойством users.db-gate.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.db-gate.enabled", havingValue = "true")
+public class DbGateConfig {
+
+    @Bean
+    public static BeanPostProcessor dbGateDataSourcePostProcessor(
+            @Value("${users.db-gate.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+            @Value("${users.db-gate.acquire-timeout:5s}") Duration acquireTimeout,
+            @Value("${users.db-gate.max-waiting:1000}") int maxWaiting,
+            @Value("${users.replicas.enabled:false}") boolean replicasEnabled,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        String gatedBean = replicasEnabled ? "primaryDataSource" : "dataSource";
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (gatedBean.equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new DbGateDataSource(dataSource, maxConcurrency, acquireTimeout, maxWaiting,
+                            meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
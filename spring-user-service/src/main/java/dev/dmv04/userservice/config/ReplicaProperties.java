@@ -0,0 +1,47 @@
+package dev.dmv04.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Настройки реплик для чтения (users.replicas).
+ *
+ * @param datasources      реплики
+ * @param maxLag           реплика с большим отставанием исключается из маршрутизации
+ * @param lagCheckInterval период проверки отставания
+ * @param selection        выбор реплики: round-robin или least-connections
+ */
+@ConfigurationProperties("users.replicas")
+public record ReplicaProperties(
+        @DefaultValue List<Replica> datasources,
+        @DefaultValue("1s") Duration maxLag,
+        @DefaultValue("1s") Duration lagCheckInterval,
+        @DefaultValue("round-robin") String selection
+) {
+
+    /**
+     * Отставание PostgreSQL-реплики в секундах; на ведущем узле — 0. Реплика, применившая всё
+     * полученное WAL, не отстаёт: время последней применённой транзакции на простаивающем
+     * ведущем узле не меняется, и разница с now() росла бы без изменений данных.
+     */
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE "
+            + "WHEN NOT pg_is_in_recovery() THEN 0 "
+            + "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    /**
+     * @param lagQuery запрос, возвращающий отставание реплики в секундах
+     */
+    public record Replica(
+            String name,
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maximumPoolSize,
+            @DefaultValue(POSTGRES_LAG_QUERY) String lagQuery
+    ) {
+    }
+}
@@ -0,0 +1,87 @@
+package dev.dmv04.userservice.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.datasource.ReadYourWritesFilter;
+import dev.dmv04.userservice.datasource.ReplicaPool;
+import dev.dmv04.userservice.datasource.ReplicaRoutingDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Чтение из реплик: основная БД настраивается как обычно через spring.datasource,
+ * реплики — через users.replicas.datasources. Включается свойством users.replicas.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.replicas.enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReplicaPool replicaPool(ReplicaProperties replicaProperties, MeterRegistry meterRegistry) {
+        Map<String, HikariDataSource> dataSources = new LinkedHashMap<>();
+        Map<String, String> lagQueries = new LinkedHashMap<>();
+        for (ReplicaProperties.Replica replica : replicaProperties.datasources()) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + replica.name());
+            config.setJdbcUrl(replica.url());
+            config.setUsername(replica.username());
+            config.setPassword(replica.password());
+            config.setMaximumPoolSize(replica.maximumPoolSize());
+            config.setReadOnly(true);
+            dataSources.put(replica.name(), new HikariDataSource(config));
+            lagQueries.put(replica.name(), replica.lagQuery());
+        }
+        ReplicaPool.Selection selection = ReplicaPool.Selection.valueOf(
+                replicaProperties.selection().toUpperCase(Locale.ROOT).replace('-', '_'));
+        return new ReplicaPool(dataSources, lagQueries, selection,
+                replicaProperties.maxLag(), replicaProperties.lagCheckInterval(), meterRegistry);
+    }
+
+    /**
+     * primaryDataSource принимается как DataSource: {@link DbGateConfig} может заменить его обёрткой.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource, ReplicaPool replicaPool,
+                                 UsersGeneration usersGeneration, MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primaryDataSource, replicaPool, usersGeneration, meterRegistry);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Открывает {@link dev.dmv04.userservice.datasource.ReadConsistency} раньше остальных фильтров,
+     * в том числе кэша страниц, который проверяет её перед сохранением ответа.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaPool replicaPool) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(replicaPool.stalenessBound()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
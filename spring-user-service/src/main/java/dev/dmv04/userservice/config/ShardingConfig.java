@@ -0,0 +1,43 @@
+package dev.dmv04.userservice.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.dmv04.userservice.sharding.ShardedUserRepository;
+import dev.dmv04.userservice.sharding.SnowflakeIdGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Шардирование users: строки пользователей хранятся в users.sharding.datasources, а основная
+ * БД (spring.datasource) хранит индекс email, outbox и остальные таблицы.
+ * Включается свойством users.sharding.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "users.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardedUserRepository shardedUserRepository(ShardingProperties shardingProperties, DataSource dataSource)
+            throws MetaDataAccessException {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : shardingProperties.datasources()) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("shard-" + shard.name());
+            config.setJdbcUrl(shard.url());
+            config.setUsername(shard.username());
+            config.setPassword(shard.password());
+            config.setMaximumPoolSize(shard.maximumPoolSize());
+            shards.put(shard.name(), new HikariDataSource(config));
+        }
+        return new ShardedUserRepository(shards, shardingProperties.virtualNodes(),
+                new SnowflakeIdGenerator(shardingProperties.nodeId()), dataSource);
+    }
+}
@@ -0,0 +1,38 @@
+package dev.dmv04.userservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Настройки шардирования таблицы users (users.sharding).
+ *
+ * @param datasources  шарды; в каждом должна быть таблица users той же структуры
+ * @param virtualNodes число точек каждого шарда на кольце консистентного хеширования
+ * @param nodeId       номер экземпляра сервиса в генераторе ID (0–1023), уникальный для каждого экземпляра;
+ *                     обязателен: у экземпляров с одинаковым номером ID совпадут
+ */
+@ConfigurationProperties("users.sharding")
+public record ShardingProperties(
+        @DefaultValue List<Shard> datasources,
+        @DefaultValue("160") int virtualNodes,
+        Integer nodeId
+) {
+
+    public ShardingProperties {
+        if (nodeId == null) {
+            throw new IllegalArgumentException(
+                    "users.sharding.node-id must be set to a number unique for each instance when sharding is enabled");
+        }
+    }
+
+    public record Shard(
+            String name,
+            String url,
+            String username,
+            String password,
+            @DefaultValue("10") int maximumPoolSize
+    ) {
+    }
+}
@@ -0,0 +1,58 @@
+package dev.dmv04.userservice.consumer;
+
+import dev.dmv04.userservice.cache.EmailFilter;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.config.CacheConfig;
+import dev.dmv04.userservice.dto.UserEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Сбрасывает локальные кэши пользователей по событиям из user-events, в том числе
+ * опубликованным другими репликами. У каждого инстанса своя consumer group, поэтому
+ * каждая реплика получает все события. Email созданных и изменённых пользователей
+ * добавляются в {@link EmailFilter}.
+ */
+@Component
+public class UserCacheInvalidationConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCacheInvalidationConsumer.class);
+
+    private final Cache usersCache;
+    private final UsersGeneration usersGeneration;
+    private final EmailFilter emailFilter;
+
+    public UserCacheInvalidationConsumer(CacheManager cacheManager, UsersGeneration usersGeneration,
+                                         EmailFilter emailFilter) {
+        this.usersCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        this.usersGeneration = usersGeneration;
+        this.emailFilter = emailFilter;
+    }
+
+    @KafkaListener(
+            topics = "user-events",
+            groupId = "user-service-cache-#{T(java.util.UUID).randomUUID()}",
+            containerFactory = "userEventListenerContainerFactory",
+            autoStartup = "${users.cache.invalidation.enabled:true}"
+    )
+    public void consume(UserEvent event) {
+        usersGeneration.increment();
+        if (!UserEvent.DELETE.equals(event.action()) && event.email() != null) {
+            emailFilter.add(event.email());
+        }
+        if (UserEvent.CREATE.equals(event.action())) {
+            return;
+        }
+        if (event.userId() != null) {
+            usersCache.evictIfPresent(event.userId());
+        } else {
+            logger.warn("Received {} event without userId for email: {}, clearing user cache",
+                    event.action(), event.email());
+            usersCache.clear();
+        }
+    }
+}
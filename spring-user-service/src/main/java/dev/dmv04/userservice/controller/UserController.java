@@ -2,8 +2,23 @@ package dev.dmv04.userservice.controller;
 
 import dev.dmv04.userservice.dto.CreateUserRequest;
 import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserBatchResponse;
+import dev.dmv04.userservice.dto.UserBulkDeleteRequest;
+import dev.dmv04.userservice.dto.UserBulkDeleteResponse;
 import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.dto.UserImportResponse;
+import dev.dmv04.userservice.dto.UserLookupModel;
+import dev.dmv04.userservice.dto.UserLookupRequest;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.limiter.ConcurrencyLimited;
+import dev.dmv04.userservice.service.UserBatchService;
+import dev.dmv04.userservice.service.UserBulkDeleteService;
+import dev.dmv04.userservice.service.UserCreateBatcher;
+import dev.dmv04.userservice.service.UserExportService;
+import dev.dmv04.userservice.service.UserImportService;
 import dev.dmv04.userservice.service.UserService;
+import dev.dmv04.userservice.service.UserUpdateCoalescer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,9 +26,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -21,33 +42,68 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @RestController
 @RequestMapping("/api/users")
 @Tag(name = "Users", description = "Операции с пользователями")
 public class UserController {
 
-    private final UserService userService;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_LOOKUP_IDS = 10_000;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
 
-    public UserController(UserService userService) {
+    private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserBatchService userBatchService;
+    private final UserBulkDeleteService userBulkDeleteService;
+    private final UserImportService userImportService;
+    private final UserCreateBatcher userCreateBatcher;
+    private final UserUpdateCoalescer userUpdateCoalescer;
+    private final UserLinks userLinks;
+
+    public UserController(UserService userService, UserExportService userExportService,
+                          UserBatchService userBatchService, UserBulkDeleteService userBulkDeleteService,
+                          UserImportService userImportService, ObjectProvider<UserCreateBatcher> userCreateBatcher,
+                          ObjectProvider<UserUpdateCoalescer> userUpdateCoalescer, UserLinks userLinks) {
         this.userService = userService;
+        this.userExportService = userExportService;
+        this.userBatchService = userBatchService;
+        this.userBulkDeleteService = userBulkDeleteService;
+        this.userImportService = userImportService;
+        this.userCreateBatcher = userCreateBatcher.getIfAvailable();
+        this.userUpdateCoalescer = userUpdateCoalescer.getIfAvailable();
+        this.userLinks = userLinks;
+    }
+
+    public static int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
     }
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Получить пользователя по ID",
-            description = "Возвращает данные пользователя по его уникальному идентификатору"
+            description = "Возвращает данные пользователя по его уникальному идентификатору. "
+                    + "ETag ответа содержит версию пользователя, при совпадении If-None-Match возвращается 304"
     )
     @ApiResponses({
             @ApiResponse(
@@ -58,6 +114,10 @@ public class UserController {
                             schema = @Schema(implementation = UserResource.class)
                     )
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Пользователь не изменился с версии из If-None-Match"
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Пользователь не найден",
@@ -67,26 +127,47 @@ public class UserController {
                     )
             )
     })
-    public EntityModel<UserDTO> getUserById(
+    public ResponseEntity<EntityModel<UserDTO>> getUserById(
             @Parameter(description = "ID пользователя", required = true, example = "1")
-            @PathVariable Long id) {
-
-        UserDTO dto = userService.getUserById(id);
-
-        EntityModel<UserDTO> resource = EntityModel.of(dto);
-        resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"));
-        resource.add(linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
-        resource.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create-user"));
-
-        return resource;
+            @PathVariable Long id,
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда", example = "id,email")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "false — вернуть данные без HATEOAS ссылок", example = "false")
+            @RequestParam(required = false) Boolean links,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            WebRequest webRequest,
+            HttpServletResponse response) {
+
+        UserDTO user = userService.getUserById(id);
+        Set<UserField> selectedFields = UserField.parse(fields);
+        String etag = UserEtags.of(user.version(), selectedFields, withLinks(links), accept);
+        // тело и ETag зависят от формата, поэтому Vary нужен и в ответе 304
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        EntityModel<UserDTO> resource = EntityModel.of(UserField.narrow(user, selectedFields));
+        if (!withLinks(links)) {
+            return ResponseEntity.ok().eTag(etag).body(resource);
+        }
+        resource.add(userLinks.self(id));
+        resource.add(userLinks.update(id));
+        resource.add(userLinks.delete(id));
+        resource.add(userLinks.allUsers());
+        resource.add(userLinks.createUser());
+
+        return ResponseEntity.ok().eTag(etag).body(resource);
     }
 
     @GetMapping
     @Operation(
             summary = "Получить всех пользователей",
-            description = "Возвращает список всех зарегистрированных пользователей с HATEOAS ссылками"
+            description = "Возвращает список всех зарегистрированных пользователей с HATEOAS ссылками. "
+                    + "При указании after или limit возвращает страницу пользователей с id больше after "
+                    + "и ссылкой next на следующую страницу. Параметр fields сужает набор полей, "
+                    + "links=false отключает HATEOAS ссылки"
     )
     @ApiResponse(
             responseCode = "200",
@@ -96,26 +177,215 @@ public class UserController {
                     schema = @Schema(implementation = UserCollection.class)
             )
     )
-    public CollectionModel<EntityModel<UserDTO>> getAllUsers() {
-        List<UserDTO> dtos = userService.getAllUsers();
+    public CollectionModel<EntityModel<UserDTO>> getAllUsers(
+            @Parameter(description = "Курсор: id последнего пользователя предыдущей страницы", example = "100")
+            @RequestParam(required = false) Long after,
+            @Parameter(description = "Размер страницы (от 1 до " + MAX_PAGE_SIZE + ")", example = "50")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда", example = "id,email")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "false — вернуть данные без HATEOAS ссылок", example = "false")
+            @RequestParam(required = false) Boolean links,
+            HttpServletResponse response) {
+
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        Set<UserField> selectedFields = UserField.parse(fields);
+        boolean withLinks = withLinks(links);
+        boolean paged = after != null || limit != null;
+        int pageSize = paged ? pageSize(limit) : 0;
+        List<UserDTO> dtos = paged
+                ? userService.getUsersAfter(after != null ? after : 0L, pageSize, selectedFields)
+                : userService.getAllUsers(selectedFields);
 
         List<EntityModel<UserDTO>> userResources = dtos.stream()
-                .map(dto -> {
-                    EntityModel<UserDTO> resource = EntityModel.of(dto);
-                    resource.add(linkTo(methodOn(UserController.class).getUserById(dto.id())).withSelfRel());
-                    resource.add(linkTo(methodOn(UserController.class).updateUser(dto.id(), null)).withRel("update"));
-                    resource.add(linkTo(methodOn(UserController.class).deleteUser(dto.id())).withRel("delete"));
-                    return resource;
-                })
+                .map(dto -> toItemResource(dto, withLinks))
                 .collect(Collectors.toList());
 
         CollectionModel<EntityModel<UserDTO>> collectionModel = CollectionModel.of(userResources);
-        collectionModel.add(linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel());
-        collectionModel.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create-user"));
+        if (!withLinks) {
+            return collectionModel;
+        }
+        String fieldsParameter = UserField.isAll(selectedFields) ? null : UserField.toParameter(selectedFields);
+        collectionModel.add(userLinks.page(after, paged ? pageSize : null, fieldsParameter, IanaLinkRelations.SELF));
+        if (paged && dtos.size() == pageSize) {
+            Long nextCursor = dtos.get(dtos.size() - 1).id();
+            collectionModel.add(userLinks.page(nextCursor, pageSize, fieldsParameter, IanaLinkRelations.NEXT));
+        }
+        collectionModel.add(userLinks.createUser());
 
         return collectionModel;
     }
 
+    @GetMapping(params = "ids")
+    @Operation(
+            summary = "Получить пользователей по списку ID",
+            description = "Возвращает пользователей с указанными ID одним запросом к БД в порядке запроса "
+                    + "и список ID, для которых пользователи не найдены"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Найденные пользователи с HATEOAS",
+                    content = @Content(
+                            mediaType = "application/hal+json",
+                            schema = @Schema(implementation = UserLookupModel.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный список ID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public UserLookupModel getUsersByIds(
+            @Parameter(description = "ID пользователей через запятую (не более " + MAX_LOOKUP_IDS + ")",
+                    required = true, example = "1,2,3")
+            @RequestParam String ids,
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда", example = "id,email")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "false — вернуть данные без HATEOAS ссылок", example = "false")
+            @RequestParam(required = false) Boolean links) {
+
+        return toLookupModel(parseIds(ids), UserField.parse(fields), withLinks(links));
+    }
+
+    @PostMapping("/lookup")
+    @ConcurrencyLimited(ConcurrencyLimited.Kind.READ)
+    @Operation(
+            summary = "Получить пользователей по большому списку ID",
+            description = "То же, что GET /api/users?ids=..., но список ID передаётся в теле запроса"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Найденные пользователи с HATEOAS",
+                    content = @Content(
+                            mediaType = "application/hal+json",
+                            schema = @Schema(implementation = UserLookupModel.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный список ID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public UserLookupModel lookupUsers(
+            @Parameter(description = "Список ID пользователей", required = true)
+            @Valid @RequestBody UserLookupRequest request,
+            @Parameter(description = "Поля пользователя через запятую, id возвращается всегда", example = "id,email")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "false — вернуть данные без HATEOAS ссылок", example = "false")
+            @RequestParam(required = false) Boolean links) {
+
+        if (request.ids().size() > MAX_LOOKUP_IDS) {
+            throw new InvalidRequestParameterException(
+                    "No more than " + MAX_LOOKUP_IDS + " ids can be requested at once");
+        }
+        return toLookupModel(request.ids(), UserField.parse(fields), withLinks(links));
+    }
+
+    private UserLookupModel toLookupModel(List<Long> ids, Set<UserField> fields, boolean withLinks) {
+        List<UserDTO> dtos = userService.getUsersByIds(ids, fields);
+
+        Set<Long> foundIds = new HashSet<>(dtos.size() * 2);
+        List<EntityModel<UserDTO>> userResources = new ArrayList<>(dtos.size());
+        for (UserDTO dto : dtos) {
+            foundIds.add(dto.id());
+            userResources.add(toItemResource(dto, withLinks));
+        }
+        List<Long> missingIds = ids.stream()
+                .distinct()
+                .filter(id -> !foundIds.contains(id))
+                .toList();
+
+        UserLookupModel model = new UserLookupModel(userResources, missingIds);
+        if (withLinks) {
+            model.add(userLinks.allUsers());
+            model.add(userLinks.createUser());
+        }
+        return model;
+    }
+
+    private static boolean withLinks(Boolean links) {
+        return links == null || links;
+    }
+
+    private EntityModel<UserDTO> toItemResource(UserDTO dto, boolean withLinks) {
+        EntityModel<UserDTO> resource = EntityModel.of(dto);
+        if (!withLinks) {
+            return resource;
+        }
+        resource.add(userLinks.self(dto.id()));
+        resource.add(userLinks.update(dto.id()));
+        resource.add(userLinks.delete(dto.id()));
+        return resource;
+    }
+
+    private static List<Long> parseIds(String ids) {
+        String[] parts = ids.split(",");
+        if (parts.length > MAX_LOOKUP_IDS) {
+            throw new InvalidRequestParameterException(
+                    "No more than " + MAX_LOOKUP_IDS + " ids can be requested at once");
+        }
+        List<Long> result = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            String trimmed = part.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                result.add(Long.valueOf(trimmed));
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestParameterException("ids", trimmed);
+            }
+        }
+        if (result.isEmpty()) {
+            throw new InvalidRequestParameterException("ids", ids);
+        }
+        return result;
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Выгрузить всех пользователей",
+            description = "Потоково выгружает всех пользователей в формате NDJSON или CSV без загрузки списка в память"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Выгрузка пользователей",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/csv")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Неизвестный формат выгрузки",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public void exportUsers(
+            @Parameter(description = "Формат выгрузки: ndjson или csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+
+        UserExportService.Format exportFormat = UserExportService.Format.fromParameter(format);
+
+        response.setContentType(exportFormat.mediaType().toString());
+        userExportService.export(exportFormat, response.getOutputStream());
+    }
+
     @PostMapping
     @Operation(
             summary = "Создать нового пользователя",
@@ -149,25 +419,101 @@ public class UserController {
     })
     public ResponseEntity<EntityModel<UserDTO>> createUser(
             @Parameter(description = "Данные для создания пользователя", required = true)
-            @Valid @RequestBody CreateUserRequest request) {
+            @Valid @RequestBody CreateUserRequest request,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        UserDTO dto = userService.createUser(request);
+        UserDTO dto = userCreateBatcher != null
+                ? userCreateBatcher.create(request)
+                : userService.createUser(request);
 
         EntityModel<UserDTO> resource = EntityModel.of(dto);
-        resource.add(linkTo(methodOn(UserController.class).getUserById(dto.id())).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).updateUser(dto.id(), null)).withRel("update"));
-        resource.add(linkTo(methodOn(UserController.class).deleteUser(dto.id())).withRel("delete"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
+        resource.add(userLinks.self(dto.id()));
+        resource.add(userLinks.update(dto.id()));
+        resource.add(userLinks.delete(dto.id()));
+        resource.add(userLinks.allUsers());
 
         return ResponseEntity
-                .created(linkTo(methodOn(UserController.class).getUserById(dto.id())).toUri())
+                .created(URI.create(userLinks.item(dto.id())))
+                .eTag(UserEtags.of(dto.version(), UserField.ALL, true, accept))
                 .body(resource);
     }
 
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Создать пользователей пакетом",
+            description = "Создает до " + UserBatchService.MAX_BATCH_SIZE + " пользователей за один запрос. "
+                    + "Некорректные пользователи и пользователи с занятым email не создаются, "
+                    + "результат по каждому пользователю возвращается в порядке запроса"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Результаты создания по каждому пользователю",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UserBatchResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Пустой пакет или пакет больше допустимого размера",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public UserBatchResponse createUsers(
+            @Parameter(description = "Данные пользователей", required = true)
+            @RequestBody List<CreateUserRequest> requests) {
+
+        if (requests.isEmpty() || requests.size() > UserBatchService.MAX_BATCH_SIZE) {
+            throw new InvalidRequestParameterException(
+                    "Batch must contain from 1 to " + UserBatchService.MAX_BATCH_SIZE + " users");
+        }
+        return UserBatchResponse.of(userBatchService.createUsers(requests));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(
+            summary = "Импортировать пользователей из файла",
+            description = "Потоково загружает пользователей из CSV (первая строка — заголовок с колонками "
+                    + "name, email, age) или NDJSON (один объект пользователя на строку). "
+                    + "Строки с ошибками и пользователи с занятым email пропускаются. "
+                    + "Файл фиксируется частями по users.import.chunk-size строк: при ошибке посреди "
+                    + "импорта уже зафиксированные части остаются, повторная загрузка файла пропустит их "
+                    + "как занятые email"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Итоги импорта",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UserImportResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "В CSV нет заголовка с нужными колонками",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public UserImportResponse importUsers(HttpServletRequest request) throws IOException {
+        UserImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(TEXT_CSV) ? UserImportService.Format.CSV : UserImportService.Format.NDJSON;
+        return userImportService.importUsers(request.getInputStream(), format);
+    }
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Обновить пользователя по ID",
-            description = "Обновляет данные существующего пользователя"
+            description = "Обновляет данные существующего пользователя. "
+                    + "С заголовком If-Match обновление выполняется, только если версия пользователя совпадает с ETag"
     )
     @ApiResponses({
             @ApiResponse(
@@ -193,24 +539,39 @@ public class UserController {
                             mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class)
                     )
+            ),
+            @ApiResponse(
+                    responseCode = "412",
+                    description = "Пользователь изменён после получения ETag из If-Match",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
             )
     })
-    public EntityModel<UserDTO> updateUser(
+    public ResponseEntity<EntityModel<UserDTO>> updateUser(
             @Parameter(description = "ID пользователя", required = true, example = "1")
             @PathVariable Long id,
             @Parameter(description = "Данные для обновления пользователя", required = true)
-            @Valid @RequestBody UpdateUserRequest request) {
+            @Valid @RequestBody UpdateUserRequest request,
+            @Parameter(description = "ETag пользователя, полученный из GET", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @Parameter(hidden = true)
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
 
-        UserDTO dto = userService.updateUser(id, request);
+        Long expectedVersion = UserEtags.expectedVersion(id, ifMatch);
+        UserDTO dto = userUpdateCoalescer != null && expectedVersion == null
+                ? userUpdateCoalescer.update(id, request)
+                : userService.updateUser(id, request, expectedVersion);
 
         EntityModel<UserDTO> resource = EntityModel.of(dto);
-        resource.add(linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel());
-        resource.add(linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"));
-        resource.add(linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete"));
-        resource.add(linkTo(methodOn(UserController.class).getAllUsers()).withRel("all-users"));
-        resource.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create-user"));
+        resource.add(userLinks.self(id));
+        resource.add(userLinks.update(id));
+        resource.add(userLinks.delete(id));
+        resource.add(userLinks.allUsers());
+        resource.add(userLinks.createUser());
 
-        return resource;
+        return ResponseEntity.ok().eTag(UserEtags.of(dto.version(), UserField.ALL, true, accept)).body(resource);
     }
 
     @DeleteMapping("/{id}")
@@ -238,19 +599,55 @@ public class UserController {
 
         userService.deleteUser(id);
 
-        String allUsersLink = linkTo(methodOn(UserController.class).getAllUsers()).toString();
-        String createUserLink = linkTo(methodOn(UserController.class).createUser(null)).toString();
+        String allUsersLink = userLinks.collection();
+        String createUserLink = userLinks.collection();
 
         String linkHeader = String.format("<%s>; rel=\"all-users\", <%s>; rel=\"create-user\"",
                 allUsersLink, createUserLink);
 
         return ResponseEntity
                 .noContent()
-                .location(linkTo(methodOn(UserController.class).getAllUsers()).toUri())
+                .location(URI.create(allUsersLink))
                 .header("Link", linkHeader)
                 .build();
     }
 
+    @DeleteMapping
+    @ConcurrencyLimited(ConcurrencyLimited.Kind.NONE)
+    @Operation(
+            summary = "Удалить пользователей по списку ID",
+            description = "Удаляет до " + MAX_LOOKUP_IDS + " пользователей за один запрос. "
+                    + "Строки удаляются частями, каждая часть в своей транзакции"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Количество удалённых пользователей и ненайденные ID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = UserBulkDeleteResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Некорректный список ID",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)
+                    )
+            )
+    })
+    public UserBulkDeleteResponse deleteUsers(
+            @Parameter(description = "Список ID удаляемых пользователей", required = true)
+            @Valid @RequestBody UserBulkDeleteRequest request) {
+
+        if (request.ids().size() > MAX_LOOKUP_IDS) {
+            throw new InvalidRequestParameterException(
+                    "No more than " + MAX_LOOKUP_IDS + " ids can be deleted at once");
+        }
+        return userBulkDeleteService.deleteUsers(request.ids());
+    }
+
     @GetMapping("/error-test/500")
     public ResponseEntity<Map<String, String>> test500Error() {
         Map<String, String> errorResponse = new HashMap<>();
@@ -0,0 +1,115 @@
+package dev.dmv04.userservice.controller;
+
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.exception.PreconditionFailedException;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ETag представлений пользователя и разбор If-Match; общие для сервлетного и реактивного
+ * контроллеров, чтобы оба стека выдавали и принимали одинаковые валидаторы.
+ */
+public final class UserEtags {
+
+    private static final String FORMAT = ";format=";
+    private static final Map<String, MediaType> BINARY_FORMATS = Map.of(
+            "cbor", MediaType.parseMediaType("application/cbor"),
+            "smile", MediaType.parseMediaType("application/x-jackson-smile"));
+
+    private UserEtags() {
+    }
+
+    /**
+     * Сильный ETag JSON-представления пользователя: версия записи, для сокращённых представлений
+     * дополненная набором полей и признаком ссылок.
+     */
+    public static String of(Long version, Set<UserField> fields, boolean withLinks) {
+        return of(version, fields, withLinks, null);
+    }
+
+    /**
+     * ETag представления в формате, который будет выбран по Accept: тела JSON, CBOR и Smile
+     * различаются байтами, поэтому у бинарных форматов к ETag добавляется их имя.
+     */
+    public static String of(Long version, Set<UserField> fields, boolean withLinks, String accept) {
+        StringBuilder etag = new StringBuilder().append('"').append(version);
+        if (!UserField.isAll(fields)) {
+            etag.append(";fields=").append(UserField.toParameter(fields));
+        }
+        if (!withLinks) {
+            etag.append(";links=false");
+        }
+        String format = binaryFormat(accept);
+        if (format != null) {
+            etag.append(FORMAT).append(format);
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Имя бинарного формата, который выберет согласование содержимого, или null для JSON.
+     * Как и в Spring MVC, побеждает тип с наибольшим q; шаблоны (application/* и любой тип) выбирают JSON,
+     * так как его конвертеры зарегистрированы первыми.
+     */
+    static String binaryFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            if (mediaType.isWildcardSubtype() || isJson(mediaType)) {
+                return null;
+            }
+            for (Map.Entry<String, MediaType> format : BINARY_FORMATS.entrySet()) {
+                if (format.getValue().equalsTypeAndSubtype(mediaType)) {
+                    return format.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isJson(MediaType mediaType) {
+        return MediaType.APPLICATION_JSON.isCompatibleWith(mediaType)
+                || mediaType.getSubtype().endsWith("+json");
+    }
+
+    /**
+     * Извлекает ожидаемую версию из If-Match. Принимается только полный ETag пользователя
+     * в любом формате или "*" (без проверки версии); любой другой ETag не может совпасть с текущим.
+     */
+    public static Long expectedVersion(Long id, String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            String tag = value.substring(1, value.length() - 1);
+            int format = tag.indexOf(FORMAT);
+            if (format > 0 && BINARY_FORMATS.containsKey(tag.substring(format + FORMAT.length()))) {
+                tag = tag.substring(0, format);
+            }
+            try {
+                return Long.valueOf(tag);
+            } catch (NumberFormatException e) {
+                // не ETag полного представления
+            }
+        }
+        throw new PreconditionFailedException(id, ifMatch);
+    }
+}
@@ -0,0 +1,95 @@
+package dev.dmv04.userservice.controller;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Строит HATEOAS-ссылки {@link UserController} подстановкой строк вместо
+ * linkTo(methodOn(...)), который на каждую ссылку создаёт прокси и заново собирает URI.
+ * Пути берутся из маппинга контроллера один раз, базовый URI вычисляется один раз на запрос.
+ */
+@Component
+public class UserLinks {
+
+    public static final LinkRelation UPDATE = LinkRelation.of("update");
+    public static final LinkRelation DELETE = LinkRelation.of("delete");
+    public static final LinkRelation ALL_USERS = LinkRelation.of("all-users");
+    public static final LinkRelation CREATE_USER = LinkRelation.of("create-user");
+
+    private static final String BASE_URI_ATTRIBUTE = UserLinks.class.getName() + ".BASE_URI";
+
+    private final String collectionPath;
+    private final String itemPathPrefix;
+
+    public UserLinks() {
+        RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(UserController.class, RequestMapping.class);
+        this.collectionPath = mapping.path()[0];
+        this.itemPathPrefix = collectionPath + "/";
+    }
+
+    public Link self(Long id) {
+        return Link.of(item(id), IanaLinkRelations.SELF);
+    }
+
+    public Link update(Long id) {
+        return Link.of(item(id), UPDATE);
+    }
+
+    public Link delete(Long id) {
+        return Link.of(item(id), DELETE);
+    }
+
+    public Link allUsers() {
+        return Link.of(collection(), ALL_USERS);
+    }
+
+    public Link createUser() {
+        return Link.of(collection(), CREATE_USER);
+    }
+
+    public Link page(Long after, Integer limit, LinkRelation relation) {
+        return page(after, limit, null, relation);
+    }
+
+    public Link page(Long after, Integer limit, String fields, LinkRelation relation) {
+        StringBuilder href = new StringBuilder(collection());
+        char separator = '?';
+        if (after != null) {
+            href.append(separator).append("after=").append(after);
+            separator = '&';
+        }
+        if (limit != null) {
+            href.append(separator).append("limit=").append(limit);
+            separator = '&';
+        }
+        if (fields != null) {
+            href.append(separator).append("fields=").append(fields);
+        }
+        return Link.of(href.toString(), relation);
+    }
+
+    public String item(Long id) {
+        return baseUri() + itemPathPrefix + id;
+    }
+
+    public String collection() {
+        return baseUri() + collectionPath;
+    }
+
+    private static String baseUri() {
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        String baseUri = (String) attributes.getAttribute(BASE_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (baseUri == null) {
+            baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+            attributes.setAttribute(BASE_URI_ATTRIBUTE, baseUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUri;
+    }
+}
@@ -0,0 +1,156 @@
+package dev.dmv04.userservice.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает число одновременно выданных соединений семафором. Разрешение берётся до запроса
+ * соединения у пула и возвращается при его закрытии, поэтому при тысячах виртуальных потоков
+ * к пулу одновременно обращаются не больше maxConcurrency из них, а остальные ждут в честной
+ * очереди семафора не дольше acquireTimeout. Если очередь длиннее maxWaiting, запрос отклоняется
+ * сразу: под перегрузкой быстрый отказ лучше, чем ожидание до тайм-аута у всех.
+ */
+public class DbGateDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+    private final int maxWaiting;
+    private final Timer waitTimes;
+    private final Counter timeouts;
+    private final Counter queueFull;
+
+    public DbGateDataSource(DataSource target, int maxConcurrency, Duration acquireTimeout, int maxWaiting,
+                            MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+        this.maxWaiting = maxWaiting;
+        this.waitTimes = Timer.builder("users.db-gate.wait")
+                .description("Ожидание разрешения на соединение с БД")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.timeouts = Counter.builder("users.db-gate.rejected")
+                .description("Запросы соединения, отклонённые шлюзом БД")
+                .tag("reason", "timeout")
+                .register(meterRegistry);
+        this.queueFull = Counter.builder("users.db-gate.rejected")
+                .description("Запросы соединения, отклонённые шлюзом БД")
+                .tag("reason", "queue-full")
+                .register(meterRegistry);
+        Gauge.builder("users.db-gate.in-use", permits, p -> maxConcurrency - p.availablePermits())
+                .description("Соединения, выданные через шлюз БД")
+                .register(meterRegistry);
+        Gauge.builder("users.db-gate.waiting", permits, Semaphore::getQueueLength)
+                .description("Потоки, ожидающие разрешения шлюза БД")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return gated(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return gated(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void acquire() throws SQLException {
+        if (permits.tryAcquire()) {
+            waitTimes.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (permits.getQueueLength() >= maxWaiting) {
+            queueFull.increment();
+            throw new SQLTransientConnectionException(
+                    "DB gate queue is full (" + maxWaiting + " waiting for " + maxConcurrency + " connections)");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for DB gate", e);
+        }
+        waitTimes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("Timed out after "
+                    + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms waiting for DB gate");
+        }
+    }
+
+    private Connection gated(Connection target) {
+        return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class}, new GatedConnection(target));
+    }
+
+    private final class GatedConnection implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private GatedConnection(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getTargetConnection":
+                    return target;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
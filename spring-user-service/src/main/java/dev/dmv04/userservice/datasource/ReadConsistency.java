@@ -0,0 +1,53 @@
+package dev.dmv04.userservice.datasource;
+
+/**
+ * Требования к чтению в рамках текущего HTTP-запроса. Открывается {@link ReadYourWritesFilter}
+ * и учитывается {@link ReplicaRoutingDataSource}: клиент, недавно изменявший пользователей,
+ * читает с основной БД, остальные — с реплик. Чтение с реплики вскоре после изменения
+ * помечается как возможно устаревшее, и кэши его не сохраняют.
+ * Вне запроса (фоновые задачи, тесты сервисов) области нет и действует общее правило:
+ * после любого изменения чтение идёт на основную БД.
+ */
+public final class ReadConsistency {
+
+    private static final ThreadLocal<ReadConsistency> current = new ThreadLocal<>();
+
+    private final boolean primaryRequired;
+    private boolean possiblyStale;
+
+    private ReadConsistency(boolean primaryRequired) {
+        this.primaryRequired = primaryRequired;
+    }
+
+    static void begin(boolean primaryRequired) {
+        current.set(new ReadConsistency(primaryRequired));
+    }
+
+    static void end() {
+        current.remove();
+    }
+
+    /**
+     * Область текущего запроса или null вне запроса.
+     */
+    static ReadConsistency current() {
+        return current.get();
+    }
+
+    /**
+     * true, если в текущем запросе данные читались с реплики, которая могла ещё не получить
+     * последние изменения. Такие данные можно вернуть клиенту, но не кэшировать.
+     */
+    public static boolean isPossiblyStale() {
+        ReadConsistency consistency = current.get();
+        return consistency != null && consistency.possiblyStale;
+    }
+
+    boolean primaryRequired() {
+        return primaryRequired;
+    }
+
+    void markPossiblyStale() {
+        possiblyStale = true;
+    }
+}
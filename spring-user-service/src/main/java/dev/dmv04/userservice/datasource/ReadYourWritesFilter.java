@@ -0,0 +1,133 @@
+package dev.dmv04.userservice.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes для клиентов при чтении из реплик. Успешный ответ на изменение пользователей
+ * несёт метку последней записи — время ответа в мс от эпохи — в заголовке {@value #HEADER}
+ * и cookie {@value #COOKIE}. Запросы с меткой моложе {@link ReplicaPool#stalenessBound()}
+ * читают с основной БД, остальные — с реплик. Метка не зависит от инстанса, поэтому работает
+ * и за балансировщиком; расхождение часов инстансов должно быть меньше stalenessBound.
+ * Метка выставляется до записи тела ответа, когда контроллер уже вернул результат
+ * и изменения зафиксированы.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Last-Write";
+    public static final String COOKIE = "users-last-write";
+
+    private static final Set<String> READ_ONLY_POSTS = Set.of("/api/users/lookup");
+
+    private final Duration stalenessBound;
+
+    public ReadYourWritesFilter(Duration stalenessBound) {
+        this.stalenessBound = stalenessBound;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long lastWrite = lastWrite(request);
+        ReadConsistency.begin(lastWrite > 0
+                && Math.abs(System.currentTimeMillis() - lastWrite) < stalenessBound.toMillis());
+        try {
+            if (!isWrite(request)) {
+                chain.doFilter(request, response);
+                return;
+            }
+            LastWriteResponse wrapper = new LastWriteResponse(response);
+            chain.doFilter(request, wrapper);
+            if (!response.isCommitted()) {
+                wrapper.issue();
+            }
+        } finally {
+            ReadConsistency.end();
+        }
+    }
+
+    private static boolean isWrite(HttpServletRequest request) {
+        HttpMethod method = HttpMethod.valueOf(request.getMethod());
+        if (method == HttpMethod.GET || method == HttpMethod.HEAD || method == HttpMethod.OPTIONS
+                || method == HttpMethod.TRACE) {
+            return false;
+        }
+        return !READ_ONLY_POSTS.contains(request.getRequestURI().substring(request.getContextPath().length()));
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        String value = request.getHeader(HEADER);
+        if (value == null && request.getCookies() != null) {
+            for (Cookie cookie : request.getCookies()) {
+                if (COOKIE.equals(cookie.getName())) {
+                    value = cookie.getValue();
+                }
+            }
+        }
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private final class LastWriteResponse extends HttpServletResponseWrapper {
+
+        private boolean issued;
+
+        private LastWriteResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            issue();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            issue();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            issue();
+            super.flushBuffer();
+        }
+
+        private void issue() {
+            if (issued || getStatus() >= 400) {
+                return;
+            }
+            issued = true;
+            String token = Long.toString(System.currentTimeMillis());
+            setHeader(HEADER, token);
+            addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, token)
+                    .path("/")
+                    .maxAge(Duration.ofSeconds(stalenessBound.toSeconds() + 1))
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+    }
+}
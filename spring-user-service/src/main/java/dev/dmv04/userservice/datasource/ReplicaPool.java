@@ -0,0 +1,172 @@
+package dev.dmv04.userservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Реплики для чтения и их состояние. Раз в lag-check-interval у каждой реплики запрашивается
+ * отставание; реплика, которая отстаёт больше max-lag или не отвечает, исключается из выбора
+ * до следующей успешной проверки.
+ */
+public class ReplicaPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaPool.class);
+
+    public enum Selection { ROUND_ROBIN, LEAST_CONNECTIONS }
+
+    private final Map<String, Replica> replicas = new LinkedHashMap<>();
+    private final Selection selection;
+    private final Duration maxLag;
+    private final Duration lagCheckInterval;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+    private volatile List<Replica> healthy = List.of();
+
+    public ReplicaPool(Map<String, HikariDataSource> dataSources, Map<String, String> lagQueries,
+                       Selection selection, Duration maxLag, Duration lagCheckInterval, MeterRegistry meterRegistry) {
+        dataSources.forEach((name, dataSource) ->
+                replicas.put(name, new Replica(name, dataSource, lagQueries.get(name))));
+        this.selection = selection;
+        this.maxLag = maxLag;
+        this.lagCheckInterval = lagCheckInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        for (Replica replica : replicas.values()) {
+            Tags tags = Tags.of("replica", replica.name);
+            Gauge.builder("users.replicas.lag", replica, r -> r.lagSeconds)
+                    .description("Отставание реплики по последней проверке")
+                    .baseUnit("seconds")
+                    .tags(tags)
+                    .register(meterRegistry);
+            Gauge.builder("users.replicas.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1, если реплика участвует в чтении")
+                    .tags(tags)
+                    .register(meterRegistry);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::checkLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        replicas.values().forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * Имя реплики для очередного чтения или null, если подходящих реплик нет.
+     */
+    public String select() {
+        List<Replica> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        if (selection == Selection.LEAST_CONNECTIONS) {
+            Replica best = null;
+            int bestActive = Integer.MAX_VALUE;
+            for (Replica replica : candidates) {
+                int active = replica.activeConnections();
+                if (active < bestActive) {
+                    best = replica;
+                    bestActive = active;
+                }
+            }
+            return best.name;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size())).name;
+    }
+
+    public Map<Object, Object> targetDataSources() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        replicas.forEach((name, replica) -> targets.put(name, replica.dataSource));
+        return targets;
+    }
+
+    public HikariDataSource dataSource(String name) {
+        return replicas.get(name).dataSource;
+    }
+
+    /**
+     * Максимальное отставание, с которым реплика может обслуживать чтение, с учётом того,
+     * что отставание могло вырасти с момента последней проверки.
+     */
+    public Duration stalenessBound() {
+        return maxLag.plus(lagCheckInterval);
+    }
+
+    /**
+     * Проверяет отставание всех реплик и обновляет список доступных.
+     */
+    public void checkLag() {
+        List<Replica> available = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas.values()) {
+            boolean wasHealthy = replica.healthy;
+            try {
+                Number lag = replica.jdbcTemplate.queryForObject(replica.lagQuery, Number.class);
+                replica.lagSeconds = lag != null ? lag.doubleValue() : 0;
+                replica.healthy = replica.lagSeconds * 1000 <= maxLag.toMillis();
+            } catch (RuntimeException e) {
+                replica.healthy = false;
+                logger.debug("Lag check failed for replica {}", replica.name, e);
+            }
+            if (wasHealthy != replica.healthy) {
+                logger.warn("Replica {} is now {} (lag {} s)", replica.name,
+                        replica.healthy ? "in rotation" : "excluded", replica.lagSeconds);
+            }
+            if (replica.healthy) {
+                available.add(replica);
+            }
+        }
+        healthy = Collections.unmodifiableList(available);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final HikariDataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final String lagQuery;
+        private volatile double lagSeconds = Double.NaN;
+        private volatile boolean healthy;
+
+        private Replica(String name, HikariDataSource dataSource, String lagQuery) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.lagQuery = lagQuery;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        }
+    }
+}
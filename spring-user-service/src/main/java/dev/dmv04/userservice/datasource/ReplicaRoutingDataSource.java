@@ -0,0 +1,66 @@
+package dev.dmv04.userservice.datasource;
+
+import dev.dmv04.userservice.cache.UsersGeneration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+/**
+ * Направляет соединения read-only транзакций на реплику из {@link ReplicaPool}, все остальные —
+ * на основную БД. В HTTP-запросе на основную БД читает только клиент с недавней записью
+ * ({@link ReadYourWritesFilter}); если с последнего известного этой реплике приложения изменения
+ * пользователей ({@link UsersGeneration}, в том числе из user-events других реплик) прошло меньше
+ * {@link ReplicaPool#stalenessBound()}, чтение с реплики помечается {@link ReadConsistency}
+ * как возможно устаревшее, чтобы не попасть в кэши. Вне запроса чтение в этом окне идёт
+ * на основную БД.
+ * Должен оборачиваться в LazyConnectionDataSourceProxy: флаг read-only выставляется после того,
+ * как менеджер транзакций запрашивает соединение.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaPool replicaPool;
+    private final UsersGeneration usersGeneration;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaPool replicaPool, UsersGeneration usersGeneration,
+                                    MeterRegistry meterRegistry) {
+        this.replicaPool = replicaPool;
+        this.usersGeneration = usersGeneration;
+        setDefaultTargetDataSource(primary);
+        setTargetDataSources(replicaPool.targetDataSources());
+        this.primaryReads = Counter.builder("users.replicas.reads")
+                .description("Read-only транзакции по месту выполнения")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        this.replicaReads = Counter.builder("users.replicas.reads")
+                .description("Read-only транзакции по месту выполнения")
+                .tag("target", "replica")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        boolean changedRecently = usersGeneration.nanosSinceLastChange() < replicaPool.stalenessBound().toNanos();
+        ReadConsistency consistency = ReadConsistency.current();
+        String replica;
+        if (consistency == null) {
+            replica = changedRecently ? null : replicaPool.select();
+        } else if (consistency.primaryRequired()) {
+            replica = null;
+        } else {
+            replica = replicaPool.select();
+            if (replica != null && changedRecently) {
+                consistency.markPossiblyStale();
+            }
+        }
+        (replica != null ? replicaReads : primaryReads).increment();
+        return replica;
+    }
+}
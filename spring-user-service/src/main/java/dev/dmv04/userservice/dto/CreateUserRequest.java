@@ -4,6 +4,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 
 @Schema(description = "Запрос на создание пользователя")
 public record CreateUserRequest(
@@ -16,7 +17,8 @@ public record CreateUserRequest(
         @NotBlank
         String email,
 
-        @Schema(description = "Возраст пользователя", example = "25", minimum = "1")
+        @Schema(description = "Возраст пользователя", example = "25", minimum = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull
         @Min(1)
         Integer age
 ) {}
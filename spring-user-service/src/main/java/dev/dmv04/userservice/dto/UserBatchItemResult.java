@@ -0,0 +1,40 @@
+package dev.dmv04.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Результат создания одного пользователя из пакета")
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserBatchItemResult(
+        @Schema(description = "Позиция пользователя в запросе", example = "0")
+        int index,
+
+        @Schema(description = "HTTP-статус для этого пользователя: 201, 400 или 409", example = "201")
+        int status,
+
+        @Schema(description = "ID созданного пользователя", example = "1")
+        Long id,
+
+        @Schema(description = "Email пользователя", example = "ivan@example.com")
+        String email,
+
+        @Schema(description = "Причина ошибки", example = "Email 'ivan@example.com' already exists")
+        String message,
+
+        @Schema(description = "Ошибки валидации")
+        List<ValidationError> details
+) {
+    public static UserBatchItemResult created(int index, Long id, String email) {
+        return new UserBatchItemResult(index, 201, id, email, null, null);
+    }
+
+    public static UserBatchItemResult invalid(int index, String email, List<ValidationError> details) {
+        return new UserBatchItemResult(index, 400, null, email, "Validation failed", details);
+    }
+
+    public static UserBatchItemResult conflict(int index, String email, String message) {
+        return new UserBatchItemResult(index, 409, null, email, message, null);
+    }
+}
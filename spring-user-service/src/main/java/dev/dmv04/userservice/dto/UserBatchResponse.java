@@ -0,0 +1,22 @@
+package dev.dmv04.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Результат пакетного создания пользователей")
+public record UserBatchResponse(
+        @Schema(description = "Количество созданных пользователей", example = "2")
+        int created,
+
+        @Schema(description = "Количество отклонённых пользователей", example = "1")
+        int failed,
+
+        @Schema(description = "Результаты в порядке запроса")
+        List<UserBatchItemResult> results
+) {
+    public static UserBatchResponse of(List<UserBatchItemResult> results) {
+        int created = (int) results.stream().filter(result -> result.status() == 201).count();
+        return new UserBatchResponse(created, results.size() - created, results);
+    }
+}
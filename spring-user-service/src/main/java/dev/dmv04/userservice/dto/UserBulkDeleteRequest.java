@@ -0,0 +1,14 @@
+package dev.dmv04.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+@Schema(description = "Запрос на удаление пользователей по списку ID")
+public record UserBulkDeleteRequest(
+        @Schema(description = "ID удаляемых пользователей", example = "[1, 2, 3]")
+        @NotEmpty
+        List<@NotNull Long> ids
+) {}
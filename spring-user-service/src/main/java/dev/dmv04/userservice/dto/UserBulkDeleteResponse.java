@@ -0,0 +1,17 @@
+package dev.dmv04.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Результат пакетного удаления пользователей")
+public record UserBulkDeleteResponse(
+        @Schema(description = "Количество различных запрошенных ID", example = "3")
+        int requested,
+
+        @Schema(description = "Количество удалённых пользователей", example = "2")
+        int deleted,
+
+        @Schema(description = "ID, для которых пользователь не найден", example = "[3]")
+        List<Long> notFound
+) {}
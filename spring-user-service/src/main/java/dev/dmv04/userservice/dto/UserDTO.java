@@ -4,22 +4,31 @@ import java.time.LocalDateTime;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.hateoas.RepresentationModel;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Schema(description = "DTO пользователя")
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserDTO extends RepresentationModel<UserDTO> {
     private final Long id;
     private final String name;
     private final String email;
     private final Integer age;
     private final LocalDateTime createdAt;
+    private final Long version;
 
     public UserDTO(Long id, String name, String email, Integer age, LocalDateTime createdAt) {
+        this(id, name, email, age, createdAt, null);
+    }
+
+    public UserDTO(Long id, String name, String email, Integer age, LocalDateTime createdAt, Long version) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.age = age;
         this.createdAt = createdAt;
+        this.version = version;
     }
 
     @JsonProperty("name")
@@ -53,4 +62,12 @@ public class UserDTO extends RepresentationModel<UserDTO> {
     public LocalDateTime createdAt() {
         return createdAt;
     }
+
+    /**
+     * Версия записи для ETag; в тело ответа не попадает.
+     */
+    @JsonIgnore
+    public Long version() {
+        return version;
+    }
 }
@@ -3,13 +3,21 @@ package dev.dmv04.userservice.dto;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
-public record UserEvent(String email, String action) {
+public record UserEvent(String email, String action, Long userId) {
     public static final String CREATE = "CREATE";
+    public static final String UPDATE = "UPDATE";
     public static final String DELETE = "DELETE";
 
     @JsonCreator
-    public UserEvent(@JsonProperty("email") String email, @JsonProperty("action") String action) {
+    public UserEvent(@JsonProperty("email") String email,
+                     @JsonProperty("action") String action,
+                     @JsonProperty("userId") Long userId) {
         this.email = email;
         this.action = action;
+        this.userId = userId;
+    }
+
+    public UserEvent(String email, String action) {
+        this(email, action, null);
     }
 }
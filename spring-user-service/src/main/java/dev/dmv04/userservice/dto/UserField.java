@@ -0,0 +1,85 @@
+package dev.dmv04.userservice.dto;
+
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Поля {@link UserDTO}, которые можно запросить параметром fields.
+ * Имя поля совпадает с JSON-свойством DTO и с атрибутом сущности User.
+ * ID выбирается всегда: по нему строятся ссылки и курсор следующей страницы.
+ */
+public enum UserField {
+    ID("id"),
+    NAME("name"),
+    EMAIL("email"),
+    AGE("age"),
+    CREATED_AT("createdAt");
+
+    public static final Set<UserField> ALL = Collections.unmodifiableSet(EnumSet.allOf(UserField.class));
+
+    private final String property;
+
+    UserField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static boolean isAll(Set<UserField> fields) {
+        return fields.size() == ALL.size();
+    }
+
+    /**
+     * Разбирает значение параметра fields вида "id,email".
+     * Пустое или отсутствующее значение означает все поля.
+     */
+    public static Set<UserField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        EnumSet<UserField> result = EnumSet.of(ID);
+        for (String part : fields.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            result.add(fromProperty(name));
+        }
+        return result;
+    }
+
+    public static String toParameter(Set<UserField> fields) {
+        return fields.stream().map(UserField::property).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Оставляет в DTO только запрошенные поля, остальные обнуляются и не попадают в JSON.
+     */
+    public static UserDTO narrow(UserDTO dto, Set<UserField> fields) {
+        if (isAll(fields)) {
+            return dto;
+        }
+        return new UserDTO(
+                dto.id(),
+                fields.contains(NAME) ? dto.name() : null,
+                fields.contains(EMAIL) ? dto.email() : null,
+                fields.contains(AGE) ? dto.age() : null,
+                fields.contains(CREATED_AT) ? dto.createdAt() : null
+        );
+    }
+
+    private static UserField fromProperty(String property) {
+        for (UserField field : values()) {
+            if (field.property.equals(property)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestParameterException("fields", property);
+    }
+}
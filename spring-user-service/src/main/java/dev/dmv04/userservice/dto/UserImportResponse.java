@@ -0,0 +1,24 @@
+package dev.dmv04.userservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат импорта пользователей")
+public record UserImportResponse(
+        @Schema(description = "Прочитано строк с данными", example = "1000000")
+        long read,
+
+        @Schema(description = "Строк с ошибками формата или валидации", example = "12")
+        long invalid,
+
+        @Schema(description = "Создано пользователей", example = "999950")
+        long imported,
+
+        @Schema(description = "Пропущено строк с уже занятым или повторяющимся email", example = "38")
+        long skipped,
+
+        @Schema(description = "Длительность импорта в миллисекундах", example = "42000")
+        long elapsedMillis,
+
+        @Schema(description = "Средняя скорость импорта, строк в секунду", example = "23809")
+        long rowsPerSecond
+) {}
@@ -0,0 +1,27 @@
+package dev.dmv04.userservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import org.springframework.core.ResolvableType;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+
+import java.util.List;
+
+@Schema(description = "Пользователи, найденные по списку ID, и ID, которых нет")
+public class UserLookupModel extends CollectionModel<EntityModel<UserDTO>> {
+
+    private final List<Long> missingIds;
+
+    public UserLookupModel(List<EntityModel<UserDTO>> users, List<Long> missingIds) {
+        super(users, List.<Link>of(), ResolvableType.forClassWithGenerics(EntityModel.class, UserDTO.class));
+        this.missingIds = missingIds;
+    }
+
+    @JsonProperty("missingIds")
+    @Schema(description = "ID, для которых пользователи не найдены", example = "[3]")
+    public List<Long> missingIds() {
+        return missingIds;
+    }
+}
@@ -0,0 +1,27 @@
+package dev.dmv04.userservice.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Глобальный индекс email → ID пользователя в основной БД при шардировании users:
+ * уникальность email проверяется в нём, а не в шардах.
+ */
+@Entity
+@Table(name = "user_email_index")
+public class UserEmailIndex {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(unique = true, nullable = false)
+    private String email;
+
+    protected UserEmailIndex() {
+    }
+
+    public Long getUserId() { return userId; }
+    public String getEmail() { return email; }
+}
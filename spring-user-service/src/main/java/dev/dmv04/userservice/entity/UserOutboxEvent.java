@@ -0,0 +1,56 @@
+package dev.dmv04.userservice.entity;
+
+import dev.dmv04.userservice.dto.UserEvent;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Событие пользователя, записанное в той же транзакции, что и изменение, и ожидающее
+ * отправки в Kafka.
+ */
+@Entity
+@Table(name = "user_outbox")
+public class UserOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_outbox_seq")
+    @SequenceGenerator(name = "user_outbox_seq", sequenceName = "user_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String email;
+
+    @Column(nullable = false, length = 16)
+    private String action;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    public UserOutboxEvent() {
+    }
+
+    public UserOutboxEvent(UserEvent event) {
+        this.email = event.email();
+        this.action = event.action();
+        this.userId = event.userId();
+    }
+
+    public Long getId() { return id; }
+    public String getEmail() { return email; }
+    public String getAction() { return action; }
+    public Long getUserId() { return userId; }
+    public Instant getCreatedAt() { return createdAt; }
+
+    public UserEvent toEvent() {
+        return new UserEvent(email, action, userId);
+    }
+}
@@ -0,0 +1,15 @@
+package dev.dmv04.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestParameterException extends RuntimeException {
+    public InvalidRequestParameterException(String parameter, String value) {
+        super("Invalid value '" + value + "' for parameter '" + parameter + "'");
+    }
+
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+}
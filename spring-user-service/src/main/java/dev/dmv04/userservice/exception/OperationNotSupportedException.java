@@ -0,0 +1,11 @@
+package dev.dmv04.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_IMPLEMENTED)
+public class OperationNotSupportedException extends RuntimeException {
+    public OperationNotSupportedException(String operation, String reason) {
+        super(operation + " is not supported " + reason);
+    }
+}
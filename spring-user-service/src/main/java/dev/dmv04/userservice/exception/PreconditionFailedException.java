@@ -0,0 +1,15 @@
+package dev.dmv04.userservice.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(Long id, Long expectedVersion) {
+        super("User with id " + id + " has been modified since version " + expectedVersion);
+    }
+
+    public PreconditionFailedException(Long id, String ifMatch) {
+        super("User with id " + id + " does not match If-Match " + ifMatch);
+    }
+}
@@ -0,0 +1,192 @@
+package dev.dmv04.userservice.limiter;
+
+import dev.dmv04.userservice.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных запросов по измеренной задержке (градиентный алгоритм в духе
+ * TCP Vegas). Средняя задержка короткого окна сравнивается с базовой — медленно сглаженной
+ * по longWindow окнам: пока короткая не превышает базовую больше чем в rttTolerance раз,
+ * лимит растёт на sqrt(limit) за окно; при росте очереди в БД лимит снижается пропорционально
+ * отношению задержек, но не больше чем вдвое за окно. Окно с отказом из-за перегрузки
+ * (тайм-аут пула, шлюза БД или запроса) уменьшает лимит мультипликативно, как в AIMD.
+ * Окна, в которых занято меньше половины лимита, лимит не меняют: задержка в них ничего
+ * не говорит о пропускной способности.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double rttTolerance;
+    private final double smoothing;
+    private final double longRttFactor;
+    private final long windowNanos;
+    private final int windowSamples;
+    private final double backoffRatio;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter rejected;
+    private final Counter drops;
+
+    private volatile double limit;
+
+    // текущее окно замеров, под this
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(String kind, ConcurrencyLimitProperties.Limit limits,
+                                    ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        if (limits.minLimit() < 1 || limits.minLimit() > limits.maxLimit()) {
+            throw new IllegalArgumentException("Concurrency limit bounds must satisfy 1 <= min <= max");
+        }
+        this.minLimit = limits.minLimit();
+        this.maxLimit = limits.maxLimit();
+        this.limit = Math.max(minLimit, Math.min(maxLimit, limits.initialLimit()));
+        this.rttTolerance = properties.rttTolerance();
+        this.smoothing = properties.smoothing();
+        this.longRttFactor = 2.0 / (properties.longWindow() + 1);
+        this.windowNanos = properties.window().toNanos();
+        this.windowSamples = properties.windowSamples();
+        this.backoffRatio = properties.backoffRatio();
+
+        this.rejected = Counter.builder("users.concurrency-limit.rejected")
+                .description("Запросы, отклонённые ограничением параллельности с ответом 503")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        this.drops = Counter.builder("users.concurrency-limit.dropped")
+                .description("Запросы, завершившиеся отказом из-за перегрузки БД")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("users.concurrency-limit.limit", this, AdaptiveConcurrencyLimit::getLimit)
+                .description("Текущий лимит одновременных запросов")
+                .tag("kind", kind)
+                .register(meterRegistry);
+        Gauge.builder("users.concurrency-limit.in-flight", inFlight, AtomicInteger::get)
+                .description("Запросы, выполняющиеся в пределах лимита")
+                .tag("kind", kind)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Занимает место в лимите; null означает, что запрос нужно отклонить сразу.
+     */
+    public Permit tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return null;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return new Permit(System.nanoTime(), current + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Учитывает завершённый запрос: rttNanos — его время, inFlightAtStart — занятость лимита
+     * в момент его начала. Лимит пересчитывается по окну из windowSamples запросов, но не чаще
+     * раза в window.
+     */
+    synchronized void onSample(long rttNanos, int inFlightAtStart, boolean droppedByOverload, long nowNanos) {
+        windowRttSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= droppedByOverload;
+        if (windowCount < windowSamples || nowNanos - windowStart < windowNanos) {
+            return;
+        }
+        update((double) windowRttSum / windowCount, windowMaxInFlight, windowDropped);
+        windowStart = nowNanos;
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+    }
+
+    private void update(double shortRtt, int maxInFlight, boolean droppedByOverload) {
+        double current = limit;
+        if (droppedByOverload) {
+            limit = Math.max(minLimit, current * backoffRatio);
+            return;
+        }
+        longRtt = longRtt == 0 ? shortRtt : longRtt + (shortRtt - longRtt) * longRttFactor;
+        if (longRtt > 2 * shortRtt) {
+            // задержка надолго упала (например, после восстановления БД): базовая догоняет быстрее
+            longRtt *= 0.95;
+        }
+        if (maxInFlight < current / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRtt / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * Место в лимите; освобождается ровно одним из методов завершения.
+     */
+    public final class Permit {
+
+        private final long startNanos;
+        private final int inFlightAtStart;
+        private boolean released;
+
+        private Permit(long startNanos, int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Запрос обработан: его время учитывается в окне.
+         */
+        public void success() {
+            complete(false, true);
+        }
+
+        /**
+         * Запрос не выполнен из-за перегрузки: лимит будет снижен.
+         */
+        public void dropped() {
+            complete(true, true);
+        }
+
+        /**
+         * Запрос завершился ошибкой, не связанной с нагрузкой: время не учитывается.
+         */
+        public void ignore() {
+            complete(false, false);
+        }
+
+        private void complete(boolean droppedByOverload, boolean sample) {
+            if (released) {
+                return;
+            }
+            released = true;
+            inFlight.decrementAndGet();
+            if (droppedByOverload) {
+                drops.increment();
+            }
+            if (sample) {
+                long now = System.nanoTime();
+                onSample(now - startNanos, inFlightAtStart, droppedByOverload, now);
+            }
+        }
+    }
+}
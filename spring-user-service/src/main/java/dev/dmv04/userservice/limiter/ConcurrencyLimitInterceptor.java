@@ -0,0 +1,126 @@
+package dev.dmv04.userservice.limiter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dmv04.userservice.dto.ErrorResponse;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Пропускает запросы к контроллеру пользователей в пределах {@link AdaptiveConcurrencyLimit}:
+ * отдельного для чтения (GET, HEAD) и для изменений. Метод контроллера может указать лимит
+ * явно через {@link ConcurrencyLimited}. Сверх лимита запрос сразу получает 503
+ * с Retry-After, не занимая соединение с БД, поэтому при замедлении БД очередь не растёт
+ * до общих тайм-аутов. Ответы из кэша страниц до контроллера не доходят и не ограничиваются.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".PERMIT";
+
+    private final AdaptiveConcurrencyLimit reads;
+    private final AdaptiveConcurrencyLimit writes;
+    private final String retryAfterSeconds;
+    private final ObjectMapper objectMapper;
+
+    public ConcurrencyLimitInterceptor(AdaptiveConcurrencyLimit reads, AdaptiveConcurrencyLimit writes,
+                                       Duration retryAfter, ObjectMapper objectMapper) {
+        this.reads = reads;
+        this.writes = writes;
+        this.retryAfterSeconds = Long.toString(Math.max(1, (retryAfter.toMillis() + 999) / 1000));
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        ConcurrencyLimited.Kind kind = kind(request, handler);
+        if (kind == ConcurrencyLimited.Kind.NONE) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = kind == ConcurrencyLimited.Kind.READ ? reads : writes;
+        AdaptiveConcurrencyLimit.Permit permit = limit.tryAcquire();
+        if (permit == null) {
+            reject(request, response);
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(request.getAttribute(PERMIT_ATTRIBUTE) instanceof AdaptiveConcurrencyLimit.Permit permit)) {
+            return;
+        }
+        request.removeAttribute(PERMIT_ATTRIBUTE);
+        // исключения, обработанные GlobalExceptionHandler, сюда не передаются, но остаются в атрибуте запроса
+        Throwable failure = ex != null ? ex : (Throwable) request.getAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE);
+        if (isOverload(failure)) {
+            permit.dropped();
+        } else if (failure != null && response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            permit.ignore();
+        } else {
+            permit.success();
+        }
+    }
+
+    private static ConcurrencyLimited.Kind kind(HttpServletRequest request, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            ConcurrencyLimited limited = handlerMethod.getMethodAnnotation(ConcurrencyLimited.class);
+            if (limited != null) {
+                return limited.value();
+            }
+        }
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod())
+                ? ConcurrencyLimited.Kind.READ
+                : ConcurrencyLimited.Kind.WRITE;
+    }
+
+    /**
+     * Отказ из-за нагрузки: тайм-аут пула соединений, шлюза БД или запроса, конфликт блокировок.
+     */
+    static boolean isOverload(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ErrorResponse error = new ErrorResponse(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                "Too many concurrent requests, retry later",
+                request.getRequestURI(),
+                List.of()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
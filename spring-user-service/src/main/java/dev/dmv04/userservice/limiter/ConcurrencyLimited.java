@@ -0,0 +1,29 @@
+package dev.dmv04.userservice.limiter;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Лимит {@link ConcurrencyLimitInterceptor} для метода контроллера, если его нельзя вывести
+ * из HTTP-метода: POST, который только читает, или массовая операция на пути обычного эндпоинта,
+ * которую нельзя исключить по пути. Без аннотации GET и HEAD считаются чтением, остальное — записью.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ConcurrencyLimited {
+
+    Kind value();
+
+    enum Kind {
+        READ,
+        WRITE,
+        /**
+         * Запрос не ограничивается и не участвует в оценке времени ответа.
+         */
+        NONE
+    }
+}
@@ -0,0 +1,118 @@
+package dev.dmv04.userservice.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Следит за событиями JFR jdk.VirtualThreadPinned: виртуальный поток заблокировался, не отпустив
+ * поток-носитель (чаще всего — ожидание внутри synchronized в драйвере JDBC, пуле или Hibernate).
+ * Каждое событие учитывается в users.virtual-threads.pinned с тегом source — библиотекой,
+ * в коде которой произошла блокировка; новый стек (по первым stack-depth кадрам) пишется
+ * в лог предупреждением один раз.
+ * Работает только с виртуальными потоками (spring.threads.virtual.enabled), отключается
+ * свойством users.pinning-monitor.enabled=false.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "users.pinning-monitor.enabled", havingValue = "true", matchIfMissing = true)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int MAX_REPORTED_STACKS = 100;
+
+    // первое совпадение по префиксу класса определяет источник; порядок важен
+    private static final List<Map.Entry<String, String>> SOURCES = List.of(
+            Map.entry("org.postgresql.", "jdbc-driver"),
+            Map.entry("org.h2.", "jdbc-driver"),
+            Map.entry("com.zaxxer.hikari.", "hikari"),
+            Map.entry("org.hibernate.", "hibernate"),
+            Map.entry("org.apache.kafka.", "kafka"),
+            Map.entry("dev.dmv04.", "application")
+    );
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final int stackDepth;
+    private final Set<String> reportedStacks = ConcurrentHashMap.newKeySet();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private RecordingStream recording;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${users.pinning-monitor.threshold:20ms}") Duration threshold,
+                                       @Value("${users.pinning-monitor.stack-depth:12}") int stackDepth) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+        this.stackDepth = stackDepth;
+    }
+
+    @PostConstruct
+    void start() {
+        recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::onPinned);
+        recording.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        recording.close();
+    }
+
+    void onPinned(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+        String source = source(frames);
+        timers.computeIfAbsent(source, key -> Timer.builder("users.virtual-threads.pinned")
+                        .description("Блокировки виртуальных потоков с удержанием потока-носителя")
+                        .tag("source", key)
+                        .register(meterRegistry))
+                .record(event.getDuration());
+
+        String stack = frames.stream()
+                .limit(stackDepth)
+                .map(VirtualThreadPinningMonitor::format)
+                .collect(Collectors.joining("\n\tat ", "\tat ", ""));
+        if (reportedStacks.size() < MAX_REPORTED_STACKS && reportedStacks.add(stack)) {
+            logger.warn("Virtual thread pinned its carrier for {} ms ({}):\n{}",
+                    event.getDuration().toMillis(), source, stack);
+        }
+    }
+
+    private static String source(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            for (Map.Entry<String, String> source : SOURCES) {
+                if (type.startsWith(source.getKey())) {
+                    return source.getValue();
+                }
+            }
+        }
+        return "other";
+    }
+
+    private static String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + (frame.getLineNumber() > 0 ? ":" + frame.getLineNumber() : "");
+    }
+}
@@ -0,0 +1,40 @@
+package dev.dmv04.userservice.producer;
+
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.entity.UserOutboxEvent;
+import dev.dmv04.userservice.repository.UserOutboxRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Записывает события пользователей в таблицу user_outbox в транзакции вызывающего.
+ * Событие уходит в Kafka через {@link UserOutboxRelay} только после коммита, поэтому
+ * откат транзакции отменяет и событие, а недоступность брокера не задерживает запрос.
+ */
+@Component
+public class UserEventOutbox {
+
+    private final UserOutboxRepository userOutboxRepository;
+
+    public UserEventOutbox(UserOutboxRepository userOutboxRepository) {
+        this.userOutboxRepository = userOutboxRepository;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(UserEvent event) {
+        userOutboxRepository.save(new UserOutboxEvent(event));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueAll(List<UserEvent> events) {
+        List<UserOutboxEvent> outboxEvents = new ArrayList<>(events.size());
+        for (UserEvent event : events) {
+            outboxEvents.add(new UserOutboxEvent(event));
+        }
+        userOutboxRepository.saveAll(outboxEvents);
+    }
+}
@@ -3,11 +3,14 @@ package dev.dmv04.userservice.producer;
 import dev.dmv04.userservice.dto.UserEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 @Component
 public class UserEventProducer {
@@ -16,9 +19,32 @@ public class UserEventProducer {
 
     private final KafkaTemplate<String, UserEvent> kafkaTemplate;
     private final String topic = "user-events";
+    // обработчики завершения отправки; без виртуальных потоков выполняются в сетевом потоке продюсера
+    private final Executor callbackExecutor;
 
-    public UserEventProducer(KafkaTemplate<String, UserEvent> kafkaTemplate) {
+    public UserEventProducer(KafkaTemplate<String, UserEvent> kafkaTemplate,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
         this.kafkaTemplate = kafkaTemplate;
+        this.callbackExecutor = virtualThreads
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("user-event-callback-", 0).factory())
+                : Runnable::run;
+    }
+
+    /**
+     * Отправляет событие и возвращает подтверждение брокера; используется {@link UserOutboxRelay}.
+     * Зависимые действия возвращённого future выполняются в callbackExecutor, а не в сетевом
+     * потоке продюсера, который обслуживает все отправки.
+     */
+    public CompletableFuture<SendResult<String, UserEvent>> send(UserEvent event) {
+        CompletableFuture<SendResult<String, UserEvent>> result = new CompletableFuture<>();
+        kafkaTemplate.send(topic, event).whenCompleteAsync((sent, ex) -> {
+            if (ex == null) {
+                result.complete(sent);
+            } else {
+                result.completeExceptionally(ex);
+            }
+        }, callbackExecutor);
+        return result;
     }
 
     public void sendUserEvent(String email, String eventType) {
@@ -31,7 +57,7 @@ public class UserEventProducer {
             CompletableFuture<SendResult<String, UserEvent>> future =
                     kafkaTemplate.send(topic, event);
 
-            future.whenComplete((result, ex) -> {
+            future.whenCompleteAsync((result, ex) -> {
                 if (ex == null) {
                     logger.info("Sent user event: {} for email: {}, offset: {}",
                             event.action(), event.email(), result.getRecordMetadata().offset());
@@ -39,7 +65,7 @@ public class UserEventProducer {
                     logger.error("Failed to send user event: {} for email: {}",
                             event.action(), event.email(), ex);
                 }
-            });
+            }, callbackExecutor);
 
         } catch (Exception ex) {
             logger.error("Error sending user event: {} for email: {}",
@@ -0,0 +1,178 @@
+package dev.dmv04.userservice.producer;
+
+import dev.dmv04.userservice.entity.UserOutboxEvent;
+import dev.dmv04.userservice.repository.UserOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Переносит события из user_outbox в Kafka. Каждый проход в одной транзакции захватывает
+ * до batch-size самых старых событий через SELECT ... FOR UPDATE SKIP LOCKED, поэтому реплики
+ * разбирают таблицу параллельно, не мешая друг другу. Отправки идут без ожидания друг друга,
+ * но не более max-in-flight одновременно; подтверждённые события удаляются при коммите,
+ * неотправленные остаются и будут повторены. Доставка — at-least-once.
+ */
+@Component
+@ConditionalOnProperty(name = "users.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class UserOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserOutboxRelay.class);
+
+    private final UserOutboxRepository userOutboxRepository;
+    private final UserEventProducer userEventProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+    private final Semaphore inFlight;
+    private final ScheduledExecutorService scheduler;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+    private final Counter failures;
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+
+    public UserOutboxRelay(UserOutboxRepository userOutboxRepository,
+                           UserEventProducer userEventProducer,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${users.outbox.batch-size:500}") int batchSize,
+                           @Value("${users.outbox.poll-interval:100ms}") Duration pollInterval,
+                           @Value("${users.outbox.max-in-flight:200}") int maxInFlight,
+                           @Value("${users.outbox.send-timeout:10s}") Duration sendTimeout,
+                           MeterRegistry meterRegistry) {
+        this.userOutboxRepository = userOutboxRepository;
+        this.userEventProducer = userEventProducer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.sendTimeout = sendTimeout;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "user-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSizes = DistributionSummary.builder("users.outbox.batch-size")
+                .description("Количество событий, захваченных за один проход релея")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lag = Timer.builder("users.outbox.lag")
+                .description("Время от записи события в outbox до подтверждения Kafka")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failures = Counter.builder("users.outbox.failures")
+                .description("Неудачные отправки событий из outbox")
+                .register(meterRegistry);
+        Gauge.builder("users.outbox.oldest-age", oldestAgeMillis, AtomicLong::get)
+                .description("Возраст самого старого события в последнем проходе релея")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Делает проходы, пока они возвращают полные пакеты без ошибок.
+     */
+    void drain() {
+        try {
+            while (relayBatch() == batchSize && !Thread.currentThread().isInterrupted()) {
+                // продолжаем без паузы: в outbox, вероятно, есть ещё события
+            }
+        } catch (RuntimeException e) {
+            logger.error("User outbox relay pass failed", e);
+        }
+    }
+
+    /**
+     * Отправляет один пакет и возвращает количество доставленных событий.
+     */
+    int relayBatch() {
+        Integer relayed = transactionTemplate.execute(status -> {
+            List<UserOutboxEvent> batch = userOutboxRepository.lockNextBatch(Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                oldestAgeMillis.set(0);
+                return 0;
+            }
+            batchSizes.record(batch.size());
+            oldestAgeMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+            List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+            for (UserOutboxEvent event : batch) {
+                sends.add(send(event));
+            }
+
+            List<Long> delivered = new ArrayList<>(batch.size());
+            long deadline = System.nanoTime() + sendTimeout.toNanos();
+            for (int i = 0; i < batch.size(); i++) {
+                try {
+                    sends.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    delivered.add(batch.get(i).getId());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    failures.increment();
+                    logger.warn("Failed to relay user event {} for email: {}",
+                            batch.get(i).getAction(), batch.get(i).getEmail(), e);
+                }
+            }
+            userOutboxRepository.deleteAllByIdInBatch(delivered);
+            return delivered.size();
+        });
+        return relayed != null ? relayed : 0;
+    }
+
+    private CompletableFuture<?> send(UserOutboxEvent event) {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            return userEventProducer.send(event.toEvent()).whenComplete((result, ex) -> {
+                inFlight.release();
+                if (ex == null) {
+                    lag.record(Duration.between(event.getCreatedAt(), Instant.now()));
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package dev.dmv04.userservice.reactive;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * ID из последовательности блоками так же, как их выдаёт Hibernate (оптимизатор pooled):
+ * значение последовательности — верхняя граница блока из allocationSize ID, поэтому ID
+ * не пересекаются с выданными сервлетным стеком. Запрос к БД нужен раз на allocationSize ID.
+ */
+final class PooledSequence {
+
+    private final DatabaseClient databaseClient;
+    private final String nextValue;
+    private final int allocationSize;
+    private long next;
+    private long limit;
+
+    PooledSequence(DatabaseClient databaseClient, String sequence, int allocationSize, boolean h2) {
+        this.databaseClient = databaseClient;
+        this.nextValue = h2 ? "SELECT NEXT VALUE FOR " + sequence : "SELECT nextval('" + sequence + "')";
+        this.allocationSize = allocationSize;
+    }
+
+    Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            Long id = take();
+            if (id != null) {
+                return Mono.just(id);
+            }
+            return databaseClient.sql(nextValue)
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(this::allocate);
+        });
+    }
+
+    private synchronized Long take() {
+        return next < limit ? next++ : null;
+    }
+
+    /**
+     * Берёт первый ID нового блока, остальные оставляет следующим вызовам. Конкурентные
+     * запросы могут получить по блоку каждый; недоиспользованный блок просто пропускается.
+     */
+    private synchronized long allocate(long hi) {
+        // первое значение последовательности Hibernate считает началом блока, поэтому не ниже 1
+        long first = Math.max(1, hi - allocationSize + 1);
+        next = first + 1;
+        limit = hi + 1;
+        return first;
+    }
+}
@@ -0,0 +1,104 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.ErrorResponse;
+import dev.dmv04.userservice.dto.ValidationError;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.exception.PreconditionFailedException;
+import dev.dmv04.userservice.exception.UserNotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.NotAcceptableStatusException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Ошибки реактивного стека в том же формате {@link ErrorResponse} и с теми же кодами,
+ * что у GlobalExceptionHandler; WebFlux сообщает об ошибках валидации и разбора запроса
+ * собственными исключениями.
+ */
+@RestControllerAdvice
+@Profile(ReactiveUserServiceApplication.PROFILE)
+public class ReactiveExceptionHandler {
+
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequestParameter(InvalidRequestParameterException ex,
+                                                                       ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), request, List.of());
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex,
+                                                                  ServerHttpRequest request) {
+        return error(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", ex.getMessage(), request, List.of());
+    }
+
+    @ExceptionHandler(EmailAlreadyExistsException.class)
+    public ResponseEntity<ErrorResponse> handleEmailAlreadyExists(EmailAlreadyExistsException ex,
+                                                                  ServerHttpRequest request) {
+        return error(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), request, List.of());
+    }
+
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex, ServerHttpRequest request) {
+        return error(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), request, List.of());
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationExceptions(WebExchangeBindException ex,
+                                                                    ServerHttpRequest request) {
+        List<ValidationError> details = ex.getBindingResult().getFieldErrors().stream()
+                .map(ReactiveExceptionHandler::mapToValidationError)
+                .toList();
+        return error(HttpStatus.BAD_REQUEST, "Bad Request", "Validation failed", request, details);
+    }
+
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInput(ServerWebInputException ex, ServerHttpRequest request) {
+        return error(HttpStatus.BAD_REQUEST, "Bad Request", ex.getReason(), request, List.of());
+    }
+
+    /**
+     * Формат ответа не удалось согласовать, в том числе CBOR и Smile: их нет в реактивном стеке.
+     * Тело не пишется, его не в чем передать клиенту.
+     */
+    @ExceptionHandler(NotAcceptableStatusException.class)
+    public ResponseEntity<ErrorResponse> handleNotAcceptable(NotAcceptableStatusException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE).build();
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGeneric(Exception ex, ServerHttpRequest request) {
+        return error(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error", ex.getMessage(), request, List.of());
+    }
+
+    private static ResponseEntity<ErrorResponse> error(HttpStatus status, String error, String message,
+                                                       ServerHttpRequest request, List<ValidationError> details) {
+        ErrorResponse body = new ErrorResponse(
+                LocalDateTime.now(),
+                status.value(),
+                error,
+                message,
+                request.getPath().value(),
+                details
+        );
+        return ResponseEntity.status(status).body(body);
+    }
+
+    private static ValidationError mapToValidationError(FieldError error) {
+        Object rejectedValue = error.getRejectedValue();
+        return new ValidationError(
+                error.getField(),
+                error.getDefaultMessage(),
+                rejectedValue != null ? rejectedValue.toString() : null
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.UserEvent;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderOptions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Неблокирующий продюсер событий пользователей на reactor-kafka. Сериализация та же,
+ * что у KafkaProducerConfig, поэтому потребители не различают события двух стеков.
+ */
+@Configuration
+@Profile(ReactiveUserServiceApplication.PROFILE)
+public class ReactiveKafkaConfig {
+
+    @Value("${spring.kafka.bootstrap-servers:localhost:9092}")
+    private String bootstrapServers;
+
+    @Bean(destroyMethod = "close")
+    public KafkaSender<String, UserEvent> userEventKafkaSender(
+            @Value("${users.outbox.max-in-flight:200}") int maxInFlight) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+        configProps.put(JsonSerializer.TYPE_MAPPINGS, "userEvent:dev.dmv04.userservice.dto.UserEvent");
+        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, true);
+        SenderOptions<String, UserEvent> options = SenderOptions.<String, UserEvent>create(configProps)
+                .maxInFlight(maxInFlight)
+                // неудачная отправка не прерывает пакет: событие останется в outbox и будет повторено
+                .stopOnError(false);
+        return KafkaSender.create(options);
+    }
+}
@@ -0,0 +1,215 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.controller.UserController;
+import dev.dmv04.userservice.controller.UserEtags;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.service.UserExportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Часть контракта /api/users сервлетного {@link UserController} на WebFlux: чтение по ID, список
+ * с курсором (after, limit) и выборкой полей (fields) на стороне БД, создание, обновление,
+ * удаление и потоковая выгрузка с теми же параметрами, кодами ответов, ETag и HATEOAS-ссылками.
+ * Выборка по ids, lookup, batch, import и массовое удаление есть только в сервлетном стеке.
+ * If-None-Match обрабатывает WebFlux по ETag ответа.
+ * <p>
+ * Бинарные форматы application/cbor и application/x-jackson-smile есть только в сервлетном стеке
+ * ({@link dev.dmv04.userservice.config.BinaryFormatsConfig}): среди кодеков WebFlux по умолчанию их нет,
+ * а пользовательские кодеки встают перед JSON и отвечали бы ими на запросы без явного Accept.
+ * Такие запросы получают 406.
+ */
+@RestController
+@Profile(ReactiveUserServiceApplication.PROFILE)
+@RequestMapping("/api/users")
+@Tag(name = "Users", description = "Операции с пользователями")
+public class ReactiveUserController {
+
+    private static final int EXPORT_LINES_PER_BUFFER = 256;
+
+    private final ReactiveUserService userService;
+
+    public ReactiveUserController(ReactiveUserService userService) {
+        this.userService = userService;
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Получить пользователя по ID")
+    public Mono<ResponseEntity<EntityModel<UserDTO>>> getUserById(
+            @PathVariable Long id,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Boolean links,
+            ServerHttpRequest request) {
+
+        Set<UserField> selectedFields = UserField.parse(fields);
+        boolean withLinks = withLinks(links);
+        return userService.getUserById(id).map(user -> {
+            String etag = UserEtags.of(user.version(), selectedFields, withLinks);
+            EntityModel<UserDTO> resource = EntityModel.of(UserField.narrow(user, selectedFields));
+            if (withLinks) {
+                ReactiveUserLinks userLinks = ReactiveUserLinks.of(request);
+                resource.add(userLinks.self(id));
+                resource.add(userLinks.update(id));
+                resource.add(userLinks.delete(id));
+                resource.add(userLinks.allUsers());
+                resource.add(userLinks.createUser());
+            }
+            return ResponseEntity.ok().eTag(etag).body(resource);
+        });
+    }
+
+    @GetMapping
+    @Operation(summary = "Получить всех пользователей")
+    public Mono<CollectionModel<EntityModel<UserDTO>>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Boolean links,
+            ServerHttpRequest request) {
+
+        Set<UserField> selectedFields = UserField.parse(fields);
+        boolean withLinks = withLinks(links);
+        ReactiveUserLinks userLinks = withLinks ? ReactiveUserLinks.of(request) : null;
+        boolean paged = after != null || limit != null;
+        int pageSize = paged ? UserController.pageSize(limit) : 0;
+        Flux<UserDTO> dtos = paged
+                ? userService.getUsersAfter(after != null ? after : 0L, pageSize, selectedFields)
+                : userService.getAllUsers(selectedFields);
+
+        return dtos.collectList().map(users -> {
+            CollectionModel<EntityModel<UserDTO>> collectionModel = CollectionModel.of(users.stream()
+                    .map(dto -> toItemResource(dto, userLinks))
+                    .toList());
+            if (!withLinks) {
+                return collectionModel;
+            }
+            String fieldsParameter = UserField.isAll(selectedFields) ? null : UserField.toParameter(selectedFields);
+            collectionModel.add(userLinks.page(after, paged ? pageSize : null, fieldsParameter, IanaLinkRelations.SELF));
+            if (paged && users.size() == pageSize) {
+                Long nextCursor = users.get(users.size() - 1).id();
+                collectionModel.add(userLinks.page(nextCursor, pageSize, fieldsParameter, IanaLinkRelations.NEXT));
+            }
+            collectionModel.add(userLinks.createUser());
+            return collectionModel;
+        });
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Выгрузить всех пользователей",
+            description = "Потоково выгружает всех пользователей в формате NDJSON или CSV без загрузки списка в память"
+    )
+    public Mono<Void> exportUsers(@RequestParam(defaultValue = "ndjson") String format, ServerHttpResponse response) {
+        UserExportService.Format exportFormat = UserExportService.Format.fromParameter(format);
+        DataBufferFactory buffers = response.bufferFactory();
+
+        response.getHeaders().setContentType(exportFormat.mediaType());
+        // строки объединяются в буферы, чтобы не отправлять клиенту по записи на строку
+        return response.writeWith(userService.exportUsers(exportFormat)
+                .buffer(EXPORT_LINES_PER_BUFFER)
+                .map(lines -> buffers.wrap(String.join("", lines).getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @PostMapping
+    @Operation(summary = "Создать нового пользователя")
+    public Mono<ResponseEntity<EntityModel<UserDTO>>> createUser(
+            @Valid @RequestBody CreateUserRequest createRequest,
+            ServerHttpRequest request) {
+
+        return userService.createUser(createRequest).map(dto -> {
+            ReactiveUserLinks userLinks = ReactiveUserLinks.of(request);
+            EntityModel<UserDTO> resource = EntityModel.of(dto);
+            resource.add(userLinks.self(dto.id()));
+            resource.add(userLinks.update(dto.id()));
+            resource.add(userLinks.delete(dto.id()));
+            resource.add(userLinks.allUsers());
+
+            return ResponseEntity
+                    .created(URI.create(userLinks.item(dto.id())))
+                    .eTag(UserEtags.of(dto.version(), UserField.ALL, true))
+                    .body(resource);
+        });
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Обновить пользователя по ID")
+    public Mono<ResponseEntity<EntityModel<UserDTO>>> updateUser(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateUserRequest updateRequest,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            ServerHttpRequest request) {
+
+        Long expectedVersion = UserEtags.expectedVersion(id, ifMatch);
+        return userService.updateUser(id, updateRequest, expectedVersion).map(dto -> {
+            ReactiveUserLinks userLinks = ReactiveUserLinks.of(request);
+            EntityModel<UserDTO> resource = EntityModel.of(dto);
+            resource.add(userLinks.self(id));
+            resource.add(userLinks.update(id));
+            resource.add(userLinks.delete(id));
+            resource.add(userLinks.allUsers());
+            resource.add(userLinks.createUser());
+
+            return ResponseEntity.ok().eTag(UserEtags.of(dto.version(), UserField.ALL, true)).body(resource);
+        });
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Удалить пользователя по ID")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id, ServerHttpRequest request) {
+        return userService.deleteUser(id).then(Mono.fromSupplier(() -> {
+            String allUsersLink = ReactiveUserLinks.of(request).collection();
+            String linkHeader = String.format("<%s>; rel=\"all-users\", <%s>; rel=\"create-user\"",
+                    allUsersLink, allUsersLink);
+
+            return ResponseEntity
+                    .noContent()
+                    .location(URI.create(allUsersLink))
+                    .header("Link", linkHeader)
+                    .build();
+        }));
+    }
+
+    private static boolean withLinks(Boolean links) {
+        return links == null || links;
+    }
+
+    private static EntityModel<UserDTO> toItemResource(UserDTO dto, ReactiveUserLinks userLinks) {
+        EntityModel<UserDTO> resource = EntityModel.of(dto);
+        if (userLinks == null) {
+            return resource;
+        }
+        resource.add(userLinks.self(dto.id()));
+        resource.add(userLinks.update(dto.id()));
+        resource.add(userLinks.delete(dto.id()));
+        return resource;
+    }
+}
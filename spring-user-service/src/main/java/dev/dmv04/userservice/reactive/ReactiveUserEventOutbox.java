@@ -0,0 +1,91 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.UserEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * Таблица user_outbox через R2DBC: те же строки, что пишет UserEventOutbox сервлетного стека,
+ * поэтому события обоих стеков разбирает любой релей. {@link #enqueue} должен выполняться
+ * в транзакции изменения пользователя (TransactionalOperator вызывающего).
+ */
+@Component
+@Profile(ReactiveUserServiceApplication.PROFILE)
+public class ReactiveUserEventOutbox {
+
+    /**
+     * Шаг user_outbox_seq, как в сущности UserOutboxEvent.
+     */
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private static final String INSERT = "INSERT INTO user_outbox (id, email, action, user_id, created_at) "
+            + "VALUES (:id, :email, :action, :userId, :createdAt)";
+    private static final String LOCK_NEXT_BATCH =
+            "SELECT id, email, action, user_id, created_at FROM user_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+    // H2 не поддерживает SKIP LOCKED
+    private static final String H2_LOCK_NEXT_BATCH =
+            "SELECT id, email, action, user_id, created_at FROM user_outbox ORDER BY id LIMIT :limit FOR UPDATE";
+    private static final String DELETE_ALL = "DELETE FROM user_outbox WHERE id IN (:ids)";
+
+    private final DatabaseClient databaseClient;
+    private final PooledSequence ids;
+    private final String lockNextBatch;
+
+    public ReactiveUserEventOutbox(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        boolean h2 = ReactiveUserRepository.isH2(databaseClient.getConnectionFactory());
+        this.ids = new PooledSequence(databaseClient, "user_outbox_seq", ID_ALLOCATION_SIZE, h2);
+        this.lockNextBatch = h2 ? H2_LOCK_NEXT_BATCH : LOCK_NEXT_BATCH;
+    }
+
+    public Mono<Void> enqueue(UserEvent event) {
+        OffsetDateTime createdAt = OffsetDateTime.now(ZoneOffset.UTC);
+        return ids.nextId().flatMap(id -> {
+            DatabaseClient.GenericExecuteSpec insert = databaseClient.sql(INSERT)
+                    .bind("id", id)
+                    .bind("email", event.email())
+                    .bind("action", event.action())
+                    .bind("createdAt", createdAt);
+            insert = event.userId() != null
+                    ? insert.bind("userId", event.userId())
+                    : insert.bindNull("userId", Long.class);
+            return insert.then();
+        });
+    }
+
+    /**
+     * Захватывает самые старые события до конца транзакции, пропуская строки,
+     * заблокированные другими репликами.
+     */
+    public Flux<OutboxEntry> lockNextBatch(int limit) {
+        return databaseClient.sql(lockNextBatch)
+                .bind("limit", limit)
+                .map(row -> new OutboxEntry(
+                        row.get("id", Long.class),
+                        new UserEvent(row.get("email", String.class), row.get("action", String.class),
+                                row.get("user_id", Long.class)),
+                        row.get("created_at", OffsetDateTime.class).toInstant()))
+                .all();
+    }
+
+    public Mono<Long> deleteAll(Collection<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.sql(DELETE_ALL)
+                .bind("ids", eventIds)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public record OutboxEntry(Long id, UserEvent event, Instant createdAt) {
+    }
+}
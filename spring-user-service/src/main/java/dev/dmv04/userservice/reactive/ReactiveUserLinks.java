@@ -0,0 +1,82 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.controller.UserLinks;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Ссылки {@link ReactiveUserController} с теми же отношениями и URI, что у {@link UserLinks}.
+ * В WebFlux нет RequestContextHolder, поэтому базовый URI вычисляется из запроса
+ * при создании экземпляра, один раз на запрос.
+ */
+final class ReactiveUserLinks {
+
+    private static final String COLLECTION_PATH = AnnotatedElementUtils
+            .findMergedAnnotation(ReactiveUserController.class, RequestMapping.class).path()[0];
+
+    private final String collection;
+
+    private ReactiveUserLinks(String collection) {
+        this.collection = collection;
+    }
+
+    static ReactiveUserLinks of(ServerHttpRequest request) {
+        String baseUri = UriComponentsBuilder.fromUri(request.getURI())
+                .replacePath(request.getPath().contextPath().value())
+                .replaceQuery(null)
+                .fragment(null)
+                .build()
+                .toUriString();
+        return new ReactiveUserLinks(baseUri + COLLECTION_PATH);
+    }
+
+    Link self(Long id) {
+        return Link.of(item(id), IanaLinkRelations.SELF);
+    }
+
+    Link update(Long id) {
+        return Link.of(item(id), UserLinks.UPDATE);
+    }
+
+    Link delete(Long id) {
+        return Link.of(item(id), UserLinks.DELETE);
+    }
+
+    Link allUsers() {
+        return Link.of(collection, UserLinks.ALL_USERS);
+    }
+
+    Link createUser() {
+        return Link.of(collection, UserLinks.CREATE_USER);
+    }
+
+    Link page(Long after, Integer limit, String fields, LinkRelation relation) {
+        StringBuilder href = new StringBuilder(collection);
+        char separator = '?';
+        if (after != null) {
+            href.append(separator).append("after=").append(after);
+            separator = '&';
+        }
+        if (limit != null) {
+            href.append(separator).append("limit=").append(limit);
+            separator = '&';
+        }
+        if (fields != null) {
+            href.append(separator).append("fields=").append(fields);
+        }
+        return Link.of(href.toString(), relation);
+    }
+
+    String item(Long id) {
+        return collection + "/" + id;
+    }
+
+    String collection() {
+        return collection;
+    }
+}
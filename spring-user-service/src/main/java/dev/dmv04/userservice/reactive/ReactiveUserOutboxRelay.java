@@ -0,0 +1,157 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.reactive.ReactiveUserEventOutbox.OutboxEntry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Реактивный аналог UserOutboxRelay: каждый проход в одной транзакции захватывает до batch-size
+ * самых старых событий, отправляет их через {@link KafkaSender} (не более max-in-flight
+ * одновременно) и удаляет подтверждённые при коммите; неотправленные за send-timeout остаются
+ * и будут повторены. Доставка — at-least-once, метрики те же, что у сервлетного релея.
+ */
+@Component
+@Profile(ReactiveUserServiceApplication.PROFILE)
+@ConditionalOnProperty(name = "users.outbox.relay.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveUserOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserOutboxRelay.class);
+    private static final String TOPIC = "user-events";
+
+    private final ReactiveUserEventOutbox outbox;
+    private final KafkaSender<String, UserEvent> kafkaSender;
+    private final TransactionalOperator transactionalOperator;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+    private final Counter failures;
+    private final AtomicLong oldestAgeMillis = new AtomicLong();
+    private volatile Disposable polling;
+
+    public ReactiveUserOutboxRelay(ReactiveUserEventOutbox outbox,
+                                   KafkaSender<String, UserEvent> kafkaSender,
+                                   ReactiveTransactionManager transactionManager,
+                                   @Value("${users.outbox.batch-size:500}") int batchSize,
+                                   @Value("${users.outbox.poll-interval:100ms}") Duration pollInterval,
+                                   @Value("${users.outbox.send-timeout:10s}") Duration sendTimeout,
+                                   MeterRegistry meterRegistry) {
+        this.outbox = outbox;
+        this.kafkaSender = kafkaSender;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.sendTimeout = sendTimeout;
+        this.batchSizes = DistributionSummary.builder("users.outbox.batch-size")
+                .description("Количество событий, захваченных за один проход релея")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.lag = Timer.builder("users.outbox.lag")
+                .description("Время от записи события в outbox до подтверждения Kafka")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.failures = Counter.builder("users.outbox.failures")
+                .description("Неудачные отправки событий из outbox")
+                .register(meterRegistry);
+        Gauge.builder("users.outbox.oldest-age", oldestAgeMillis, AtomicLong::get)
+                .description("Возраст самого старого события в последнем проходе релея")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        // проходы идут друг за другом с паузой poll-interval, как scheduleWithFixedDelay
+        polling = drain()
+                .then(Mono.delay(pollInterval))
+                .repeat()
+                .subscribe();
+    }
+
+    @PreDestroy
+    void stop() {
+        Disposable current = polling;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    /**
+     * Делает проходы, пока они возвращают полные пакеты без ошибок.
+     */
+    Mono<Void> drain() {
+        return relayBatch()
+                .expand(relayed -> relayed == batchSize ? relayBatch() : Mono.empty())
+                .then()
+                .onErrorResume(e -> {
+                    logger.error("User outbox relay pass failed", e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Отправляет один пакет и возвращает количество доставленных событий.
+     */
+    Mono<Integer> relayBatch() {
+        return outbox.lockNextBatch(batchSize)
+                .collectList()
+                .flatMap(this::relay)
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Integer> relay(List<OutboxEntry> batch) {
+        if (batch.isEmpty()) {
+            oldestAgeMillis.set(0);
+            return Mono.just(0);
+        }
+        batchSizes.record(batch.size());
+        oldestAgeMillis.set(Duration.between(batch.get(0).createdAt(), Instant.now()).toMillis());
+
+        Flux<SenderRecord<String, UserEvent, OutboxEntry>> records = Flux.fromIterable(batch)
+                .map(entry -> SenderRecord.create(new ProducerRecord<>(TOPIC, entry.event()), entry));
+        return kafkaSender.send(records)
+                // не дождавшиеся подтверждения события остаются в outbox
+                .take(sendTimeout)
+                .filter(result -> {
+                    OutboxEntry entry = result.correlationMetadata();
+                    if (result.exception() != null) {
+                        failures.increment();
+                        logger.warn("Failed to relay user event {} for email: {}",
+                                entry.event().action(), entry.event().email(), result.exception());
+                        return false;
+                    }
+                    lag.record(Duration.between(entry.createdAt(), Instant.now()));
+                    return true;
+                })
+                .map(result -> result.correlationMetadata().id())
+                .collectList()
+                .flatMap(delivered -> outbox.deleteAll(delivered).thenReturn(delivered.size()));
+    }
+}
@@ -0,0 +1,208 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.entity.User;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Readable;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Таблица users через R2DBC. Запросы те же, что у сервлетного стека (UserRepository
+ * и UserWriteRepository), но без JPA: строки сразу читаются в {@link UserDTO}.
+ */
+@Repository
+@Profile(ReactiveUserServiceApplication.PROFILE)
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, name, email, age, created_at, version";
+
+    private static final String FIND_BY_ID = "SELECT " + COLUMNS + " FROM users WHERE id = :id";
+    private static final String FIND_ALL = "SELECT " + COLUMNS + " FROM users ORDER BY id";
+    private static final String FIND_AFTER = "SELECT " + COLUMNS + " FROM users WHERE id > :after ORDER BY id LIMIT :limit";
+    private static final String INSERT = "INSERT INTO users (id, name, email, age, created_at, version) "
+            + "VALUES (:id, :name, :email, :age, :createdAt, 0)";
+    private static final String DELETE_RETURNING_EMAIL = "DELETE FROM users WHERE id = :id RETURNING email";
+    private static final String H2_DELETE_RETURNING_EMAIL = "SELECT email FROM OLD TABLE (DELETE FROM users WHERE id = :id)";
+
+    private final DatabaseClient databaseClient;
+    private final PooledSequence ids;
+    private final String deleteReturningEmail;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+        boolean h2 = isH2(databaseClient.getConnectionFactory());
+        this.ids = new PooledSequence(databaseClient, "users_seq", User.ID_ALLOCATION_SIZE, h2);
+        this.deleteReturningEmail = h2 ? H2_DELETE_RETURNING_EMAIL : DELETE_RETURNING_EMAIL;
+    }
+
+    static boolean isH2(ConnectionFactory connectionFactory) {
+        return "H2".equals(connectionFactory.getMetadata().getName());
+    }
+
+    public Mono<UserDTO> findById(Long id) {
+        return databaseClient.sql(FIND_BY_ID)
+                .bind("id", id)
+                .map(ReactiveUserRepository::toDto)
+                .one();
+    }
+
+    public Flux<UserDTO> findAll() {
+        return databaseClient.sql(FIND_ALL)
+                .map(ReactiveUserRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Как {@link #findAll()}, но выбирает из БД только столбцы указанных полей.
+     */
+    public Flux<UserDTO> findAll(Set<UserField> fields) {
+        if (UserField.isAll(fields)) {
+            return findAll();
+        }
+        return databaseClient.sql("SELECT " + columns(fields) + " FROM users ORDER BY id")
+                .map(sparseMapper(fields))
+                .all();
+    }
+
+    /**
+     * Страница по курсору: пользователи с id больше after по возрастанию id.
+     */
+    public Flux<UserDTO> findAfter(long after, int limit) {
+        return databaseClient.sql(FIND_AFTER)
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(ReactiveUserRepository::toDto)
+                .all();
+    }
+
+    /**
+     * Как {@link #findAfter(long, int)}, но выбирает из БД только столбцы указанных полей.
+     */
+    public Flux<UserDTO> findAfter(long after, int limit, Set<UserField> fields) {
+        if (UserField.isAll(fields)) {
+            return findAfter(after, limit);
+        }
+        return databaseClient.sql("SELECT " + columns(fields) + " FROM users WHERE id > :after ORDER BY id LIMIT :limit")
+                .bind("after", after)
+                .bind("limit", limit)
+                .map(sparseMapper(fields))
+                .all();
+    }
+
+    /**
+     * Вставляет пользователя с ID из users_seq; занятый email приходит ошибкой
+     * {@link org.springframework.dao.DuplicateKeyException}.
+     */
+    public Mono<UserDTO> insert(String name, String email, Integer age) {
+        LocalDateTime createdAt = LocalDateTime.now();
+        return ids.nextId().flatMap(id -> databaseClient.sql(INSERT)
+                .bind("id", id)
+                .bind("name", name)
+                .bind("email", email)
+                .bind("age", age)
+                .bind("createdAt", createdAt)
+                .fetch()
+                .rowsUpdated()
+                .thenReturn(new UserDTO(id, name, email, age, createdAt, 0L)));
+    }
+
+    /**
+     * Семантика UserWriteRepository#updateIfChanged: переданные (не null) поля записываются
+     * и версия увеличивается, только если строка найдена, версия совпадает с expectedVersion
+     * (null — без проверки) и значения отличаются от текущих; иначе результат пустой.
+     * Строка после изменения читается отдельным SELECT в той же транзакции, так как
+     * R2DBC-драйвер H2 не возвращает столбцы из UPDATE.
+     */
+    public Mono<UserDTO> updateIfChanged(Long id, String name, String email, Integer age, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET version = version + 1");
+        StringJoiner changed = new StringJoiner(" OR ", " AND (", ")");
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (name != null) {
+            sql.append(", name = :name");
+            changed.add("name <> :name");
+            values.put("name", name);
+        }
+        if (email != null) {
+            sql.append(", email = :email");
+            changed.add("email <> :email");
+            values.put("email", email);
+        }
+        if (age != null) {
+            sql.append(", age = :age");
+            changed.add("age <> :age");
+            values.put("age", age);
+        }
+        if (values.isEmpty()) {
+            return Mono.error(new IllegalArgumentException("At least one column must be updated"));
+        }
+        sql.append(" WHERE id = :id");
+        values.put("id", id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = :version");
+            values.put("version", expectedVersion);
+        }
+        sql.append(changed);
+
+        return databaseClient.sql(sql.toString())
+                .bindValues(values)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(rows -> rows == 0 ? Mono.empty() : findById(id));
+    }
+
+    /**
+     * Удаляет пользователя одним запросом и возвращает email удалённой строки.
+     */
+    public Mono<String> deleteReturningEmail(Long id) {
+        return databaseClient.sql(deleteReturningEmail)
+                .bind("id", id)
+                .map(row -> row.get("email", String.class))
+                .one();
+    }
+
+    private static String columns(Set<UserField> fields) {
+        return fields.stream().map(ReactiveUserRepository::column).collect(Collectors.joining(", "));
+    }
+
+    private static String column(UserField field) {
+        return field == UserField.CREATED_AT ? "created_at" : field.property();
+    }
+
+    private static Function<Readable, UserDTO> sparseMapper(Set<UserField> fields) {
+        boolean name = fields.contains(UserField.NAME);
+        boolean email = fields.contains(UserField.EMAIL);
+        boolean age = fields.contains(UserField.AGE);
+        boolean createdAt = fields.contains(UserField.CREATED_AT);
+        return row -> new UserDTO(
+                row.get("id", Long.class),
+                name ? row.get("name", String.class) : null,
+                email ? row.get("email", String.class) : null,
+                age ? row.get("age", Integer.class) : null,
+                createdAt ? row.get("created_at", LocalDateTime.class) : null
+        );
+    }
+
+    private static UserDTO toDto(Readable row) {
+        return new UserDTO(
+                row.get("id", Long.class),
+                row.get("name", String.class),
+                row.get("email", String.class),
+                row.get("age", Integer.class),
+                row.get("created_at", LocalDateTime.class),
+                row.get("version", Long.class)
+        );
+    }
+}
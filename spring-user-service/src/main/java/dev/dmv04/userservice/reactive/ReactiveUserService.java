@@ -0,0 +1,135 @@
+package dev.dmv04.userservice.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.PreconditionFailedException;
+import dev.dmv04.userservice.exception.UserNotFoundException;
+import dev.dmv04.userservice.service.UserExportService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+
+/**
+ * Операции над пользователями реактивного стека с той же семантикой, что у UserService:
+ * изменение и событие в user_outbox фиксируются одной транзакцией, обновление без изменений
+ * не увеличивает версию и не публикует событие. Кэшей и фильтра email у этого стека нет.
+ */
+@Service
+@Profile(ReactiveUserServiceApplication.PROFILE)
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveUserEventOutbox userEventOutbox;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveUserService(ReactiveUserRepository userRepository, ReactiveUserEventOutbox userEventOutbox,
+                               ReactiveTransactionManager transactionManager, ObjectMapper objectMapper) {
+        this.userRepository = userRepository;
+        this.userEventOutbox = userEventOutbox;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.objectMapper = objectMapper;
+    }
+
+    public Flux<UserDTO> getAllUsers(Set<UserField> fields) {
+        return userRepository.findAll(fields);
+    }
+
+    public Flux<UserDTO> getUsersAfter(Long after, int limit, Set<UserField> fields) {
+        return userRepository.findAfter(after, limit, fields);
+    }
+
+    /**
+     * Строки выгрузки в формате {@link UserExportService}: строки таблицы читаются по мере
+     * того, как клиент принимает ответ, и в памяти не накапливаются.
+     */
+    public Flux<String> exportUsers(UserExportService.Format format) {
+        Flux<UserDTO> users = userRepository.findAll();
+        return switch (format) {
+            case NDJSON -> users.map(this::ndjsonLine);
+            case CSV -> users.map(ReactiveUserService::csvLine).startWith(UserExportService.CSV_HEADER);
+        };
+    }
+
+    private String ndjsonLine(UserDTO user) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("id", user.id());
+        node.put("name", user.name());
+        node.put("email", user.email());
+        node.put("age", user.age());
+        node.put("createdAt", createdAt(user.createdAt()));
+        return node + "\n";
+    }
+
+    private static String csvLine(UserDTO user) {
+        return user.id() + "," + UserExportService.csvValue(user.name()) + ","
+                + UserExportService.csvValue(user.email()) + "," + (user.age() != null ? user.age() : "") + ","
+                + createdAt(user.createdAt()) + "\n";
+    }
+
+    private static String createdAt(LocalDateTime createdAt) {
+        return createdAt != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt) : "";
+    }
+
+    public Mono<UserDTO> getUserById(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)));
+    }
+
+    public Mono<UserDTO> createUser(CreateUserRequest request) {
+        return userRepository.insert(request.name(), request.email(), request.age())
+                .onErrorMap(DuplicateKeyException.class, e -> new EmailAlreadyExistsException(request.email()))
+                .flatMap(created -> userEventOutbox
+                        .enqueue(new UserEvent(created.email(), UserEvent.CREATE, created.id()))
+                        .thenReturn(created))
+                .as(transactionalOperator::transactional);
+    }
+
+    public Mono<UserDTO> updateUser(Long id, UpdateUserRequest request, Long expectedVersion) {
+        String name = request.name() != null && !request.name().isBlank() ? request.name().trim() : null;
+        String email = request.email() != null && !request.email().isBlank() ? request.email().trim() : null;
+        Integer age = request.age();
+
+        Mono<UserDTO> updated = name != null || email != null || age != null
+                ? userRepository.updateIfChanged(id, name, email, age, expectedVersion)
+                        .onErrorMap(DuplicateKeyException.class, e -> new EmailAlreadyExistsException(email))
+                : Mono.empty();
+
+        return updated
+                .flatMap(user -> userEventOutbox
+                        .enqueue(new UserEvent(user.email(), UserEvent.UPDATE, id))
+                        .thenReturn(user))
+                .switchIfEmpty(Mono.defer(() -> unchanged(id, expectedVersion)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<UserDTO> unchanged(Long id, Long expectedVersion) {
+        return getUserById(id).flatMap(current -> {
+            if (expectedVersion != null && !expectedVersion.equals(current.version())) {
+                return Mono.error(new PreconditionFailedException(id, expectedVersion));
+            }
+            return Mono.just(current);
+        });
+    }
+
+    public Mono<Void> deleteUser(Long id) {
+        return userRepository.deleteReturningEmail(id)
+                .switchIfEmpty(Mono.error(() -> new UserNotFoundException(id)))
+                .flatMap(email -> userEventOutbox.enqueue(new UserEvent(email, UserEvent.DELETE, id)))
+                .as(transactionalOperator::transactional);
+    }
+}
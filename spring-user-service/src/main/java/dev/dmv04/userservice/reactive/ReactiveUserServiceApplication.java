@@ -0,0 +1,58 @@
+package dev.dmv04.userservice.reactive;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Profiles;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+/**
+ * Реактивный стек: тот же контракт /api/users на WebFlux (Netty), R2DBC и reactor-kafka.
+ * DTO, валидация, ETag и ссылки общие с сервлетным стеком, таблицы users и user_outbox тоже,
+ * поэтому оба стека могут работать с одной БД одновременно.
+ * <p>
+ * Сканирует только пакет reactive и не подключает JDBC и JPA. Выбирается профилем reactive
+ * (см. {@link dev.dmv04.userservice.Application}); в сервлетном приложении этот класс
+ * и компоненты пакета отключены тем же профилем. Не помечен @SpringBootConfiguration,
+ * чтобы тесты сервлетного стека по-прежнему однозначно находили Application.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile(ReactiveUserServiceApplication.PROFILE)
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ComponentScan
+public class ReactiveUserServiceApplication {
+
+    public static final String PROFILE = "reactive";
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveUserServiceApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles(PROFILE)
+                .run(args);
+    }
+
+    /**
+     * Активен ли профиль reactive в аргументах, системных свойствах или переменных окружения.
+     */
+    public static boolean isSelected(String[] args) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        return environment.acceptsProfiles(Profiles.of(PROFILE));
+    }
+
+    /**
+     * Tomcat тоже на classpath (из сервлетного стека) и выбирается автоконфигурацией первым.
+     */
+    @Bean
+    NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
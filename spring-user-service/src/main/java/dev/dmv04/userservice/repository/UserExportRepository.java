@@ -0,0 +1,40 @@
+package dev.dmv04.userservice.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+@Repository
+public class UserExportRepository {
+
+    private static final String SELECT_ALL_USERS =
+            "SELECT id, name, email, age, created_at FROM users ORDER BY id";
+    private static final String SELECT_ALL_EMAILS = "SELECT email FROM users";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserExportRepository(DataSource dataSource,
+                                @Value("${users.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Проходит по всем пользователям forward-only курсором, не материализуя строки в памяти.
+     * PostgreSQL читает курсор порциями по fetch-size только внутри транзакции.
+     */
+    public void forEachUser(RowCallbackHandler handler) {
+        jdbcTemplate.query(SELECT_ALL_USERS, handler);
+    }
+
+    /**
+     * Как {@link #forEachUser}, но читает только email и без сортировки.
+     */
+    public void forEachEmail(Consumer<String> consumer) {
+        jdbcTemplate.query(SELECT_ALL_EMAILS, (RowCallbackHandler) rs -> consumer.accept(rs.getString(1)));
+    }
+}
@@ -0,0 +1,64 @@
+package dev.dmv04.userservice.repository;
+
+import dev.dmv04.userservice.entity.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+/**
+ * Выравнивает последовательность users_seq по уже занятым ID при старте, до приёма запросов.
+ * До пакетной вставки ID выдавал IDENTITY, поэтому в существующей БД последовательности может
+ * не быть или она отстаёт от max(users.id) — тогда новые пользователи получали бы занятые ID.
+ * Последовательность только сдвигается вперёд и только если отстаёт, поэтому запуск рядом
+ * с работающими репликами ничего не меняет. Выполняется для PostgreSQL; в H2 схему и
+ * последовательность создаёт Hibernate.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(name = "users.id-sequence.align-on-startup", havingValue = "true", matchIfMissing = true)
+public class UserIdSequenceAligner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdSequenceAligner.class);
+
+    private static final String CREATE_SEQUENCE =
+            "CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY " + User.ID_ALLOCATION_SIZE;
+    private static final String SET_INCREMENT = "ALTER SEQUENCE users_seq INCREMENT BY " + User.ID_ALLOCATION_SIZE;
+    // pooled-оптимизатор Hibernate по значению v выдаёт ID (v - allocationSize, v], поэтому после
+    // setval(max) следующий блок начинается с max + 1
+    private static final String ALIGN = "SELECT setval('users_seq', m.max_id) "
+            + "FROM (SELECT MAX(id) AS max_id FROM users) m "
+            + "WHERE m.max_id >= (SELECT last_value FROM users_seq)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public UserIdSequenceAligner(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(databaseProduct);
+    }
+
+    @PostConstruct
+    public void align() {
+        if (!postgres
+                || !Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass('users') IS NOT NULL", Boolean.class))) {
+            return;
+        }
+        jdbcTemplate.execute(CREATE_SEQUENCE);
+        jdbcTemplate.execute(SET_INCREMENT);
+        List<Long> aligned = jdbcTemplate.queryForList(ALIGN, Long.class);
+        if (!aligned.isEmpty()) {
+            logger.warn("users_seq was behind max(users.id), moved to {}", aligned.get(0));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package dev.dmv04.userservice.repository;
+
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.entity.User;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Импорт пользователей в PostgreSQL: строки загружаются протоколом COPY во временную таблицу
+ * users_import, затем переносятся в users. Используется только с PostgreSQL.
+ */
+@Repository
+public class UserImportRepository {
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING =
+            "CREATE TEMP TABLE users_import (ord bigint NOT NULL, name text, email text, age integer) ON COMMIT DROP";
+    private static final String COPY_STAGING = "COPY users_import (ord, name, email, age) FROM STDIN WITH (FORMAT csv)";
+
+    // Hibernate (оптимизатор pooled) считает первое значение последовательности особым случаем,
+    // поэтому блоки из первого значения не используются
+    private static final String SKIP_INITIAL_ID = "SELECT nextval('users_seq') FROM users_seq WHERE NOT is_called";
+
+    /**
+     * Переносит строки staging с ord в (?, ?]. Повторы email внутри части сводятся к первой строке,
+     * занятые email пропускаются через ON CONFLICT. ID выдаются блоками по
+     * {@link User#ID_ALLOCATION_SIZE} из users_seq так же, как их выдаёт Hibernate: значение
+     * последовательности — верхняя граница блока, поэтому ID не пересекаются с выданными приложением.
+     */
+    private static final String MERGE_CHUNK = String.format("""
+            WITH candidates AS (
+                SELECT DISTINCT ON (email) name, email, age, ord
+                FROM users_import
+                WHERE ord > ? AND ord <= ?
+                ORDER BY email, ord
+            ), numbered AS (
+                SELECT name, email, age, row_number() OVER (ORDER BY ord) - 1 AS rn
+                FROM candidates
+            ), blocks AS (
+                SELECT block, nextval('users_seq') AS hi
+                FROM generate_series(0, (SELECT (count(*) + %1$d - 1) / %1$d - 1 FROM numbered)) AS block
+            )
+            INSERT INTO users (id, name, email, age, created_at, version)
+            SELECT blocks.hi - %1$d + 1 + numbered.rn %% %1$d, numbered.name, numbered.email, numbered.age,
+                   localtimestamp, 0
+            FROM numbered
+            JOIN blocks ON blocks.block = numbered.rn / %1$d
+            ON CONFLICT (email) DO NOTHING
+            RETURNING id, email
+            """, User.ID_ALLOCATION_SIZE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserImportRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Создаёт временную таблицу users_import (удаляется при коммите) и загружает в неё строки
+     * через COPY, пронумеровав их по порядку. Должен вызываться в транзакции.
+     * Возвращает количество загруженных строк.
+     */
+    public long copyToStaging(Iterator<CreateUserRequest> rows) {
+        jdbcTemplate.execute(CREATE_STAGING);
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+                long ord = 0;
+                while (rows.hasNext()) {
+                    CreateUserRequest row = rows.next();
+                    buffer.append(++ord).append(',')
+                            .append(quote(row.name())).append(',')
+                            .append(quote(row.email())).append(',')
+                            .append(row.age()).append('\n');
+                    if (buffer.length() >= COPY_BUFFER_SIZE) {
+                        write(copyIn, buffer);
+                    }
+                }
+                write(copyIn, buffer);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+        jdbcTemplate.queryForList(SKIP_INITIAL_ID, Long.class);
+        return copied != null ? copied : 0;
+    }
+
+    /**
+     * Переносит в users строки staging с номерами в (afterOrd, toOrd] и возвращает email созданных
+     * пользователей по ID.
+     */
+    public Map<Long, String> mergeChunk(long afterOrd, long toOrd) {
+        Map<Long, String> created = new LinkedHashMap<>();
+        jdbcTemplate.query(MERGE_CHUNK, (RowCallbackHandler) rs -> created.put(rs.getLong("id"), rs.getString("email")),
+                afterOrd, toOrd);
+        return created;
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
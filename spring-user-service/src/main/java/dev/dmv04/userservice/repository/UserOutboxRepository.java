@@ -0,0 +1,26 @@
+package dev.dmv04.userservice.repository;
+
+import dev.dmv04.userservice.entity.UserOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserOutboxRepository extends JpaRepository<UserOutboxEvent, Long> {
+
+    /**
+     * Захватывает самые старые события, пропуская строки, заблокированные другими репликами
+     * (тайм-аут блокировки -2 Hibernate переводит в FOR UPDATE SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from UserOutboxEvent e order by e.id")
+    List<UserOutboxEvent> lockNextBatch(Limit limit);
+}
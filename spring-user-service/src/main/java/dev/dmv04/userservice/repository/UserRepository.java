@@ -1,13 +1,37 @@
 package dev.dmv04.userservice.repository;
 
+import dev.dmv04.userservice.dto.UserDTO;
 import dev.dmv04.userservice.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     boolean existsByEmail(String email);
-    List<User> findAllByOrderByIdAsc();
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    @Query("select new dev.dmv04.userservice.dto.UserDTO(u.id, u.name, u.email, u.age, u.createdAt, u.version) "
+            + "from User u where u.id = :id")
+    Optional<UserDTO> findDtoById(@Param("id") Long id);
+
+    @Query("select new dev.dmv04.userservice.dto.UserDTO(u.id, u.name, u.email, u.age, u.createdAt) "
+            + "from User u order by u.id")
+    List<UserDTO> findAllDtos();
+
+    @Query("select new dev.dmv04.userservice.dto.UserDTO(u.id, u.name, u.email, u.age, u.createdAt) "
+            + "from User u where u.id > :after order by u.id")
+    List<UserDTO> findDtosAfter(@Param("after") Long after, Limit limit);
+
+    @Query("select new dev.dmv04.userservice.dto.UserDTO(u.id, u.name, u.email, u.age, u.createdAt) "
+            + "from User u where u.id in :ids")
+    List<UserDTO> findDtosByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,20 @@
+package dev.dmv04.userservice.repository;
+
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Запросы, выбирающие из таблицы users только запрошенные столбцы.
+ * Невыбранные поля в возвращаемых DTO равны null.
+ */
+public interface UserRepositoryCustom {
+
+    List<UserDTO> findSparseDtos(Set<UserField> fields, Long after, Limit limit);
+
+    List<UserDTO> findSparseDtosByIdIn(Set<UserField> fields, Collection<Long> ids);
+}
@@ -0,0 +1,80 @@
+package dev.dmv04.userservice.repository;
+
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserDTO> findSparseDtos(Set<UserField> fields, Long after, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> user = query.from(User.class);
+        query.multiselect(selections(user, fields));
+        if (after != null) {
+            query.where(cb.greaterThan(user.get("id"), after));
+        }
+        query.orderBy(cb.asc(user.get("id")));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return toDtos(typedQuery.getResultList(), fields);
+    }
+
+    @Override
+    public List<UserDTO> findSparseDtosByIdIn(Set<UserField> fields, Collection<Long> ids) {
+        CriteriaQuery<Tuple> query = entityManager.getCriteriaBuilder().createTupleQuery();
+        Root<User> user = query.from(User.class);
+        query.multiselect(selections(user, fields));
+        query.where(user.get("id").in(ids));
+
+        return toDtos(entityManager.createQuery(query).getResultList(), fields);
+    }
+
+    private static List<Selection<?>> selections(Root<User> user, Set<UserField> fields) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (UserField field : fields) {
+            selections.add(user.get(field.property()).alias(field.property()));
+        }
+        return selections;
+    }
+
+    private static List<UserDTO> toDtos(List<Tuple> tuples, Set<UserField> fields) {
+        List<UserDTO> dtos = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            dtos.add(new UserDTO(
+                    tuple.get(UserField.ID.property(), Long.class),
+                    get(tuple, fields, UserField.NAME, String.class),
+                    get(tuple, fields, UserField.EMAIL, String.class),
+                    get(tuple, fields, UserField.AGE, Integer.class),
+                    get(tuple, fields, UserField.CREATED_AT, LocalDateTime.class)
+            ));
+        }
+        return dtos;
+    }
+
+    private static <T> T get(Tuple tuple, Set<UserField> fields, UserField field, Class<T> type) {
+        return fields.contains(field) ? tuple.get(field.property(), type) : null;
+    }
+}
@@ -0,0 +1,148 @@
+package dev.dmv04.userservice.repository;
+
+import dev.dmv04.userservice.dto.UserDTO;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Изменения таблицы users одним SQL-запросом в обход загрузки сущности User.
+ */
+@Repository
+public class UserWriteRepository {
+
+    private static final String[] RETURNED_COLUMNS = {"id", "name", "email", "age", "created_at", "version"};
+
+    private static final String DELETE_RETURNING_EMAIL = "DELETE FROM users WHERE id = ? RETURNING email";
+    private static final String H2_DELETE_RETURNING_EMAIL = "SELECT email FROM OLD TABLE (DELETE FROM users WHERE id = ?)";
+    private static final String DELETE_ALL_RETURNING_EMAILS = "DELETE FROM users WHERE id IN (%s) RETURNING id, email";
+    private static final String H2_DELETE_ALL_RETURNING_EMAILS =
+            "SELECT id, email FROM OLD TABLE (DELETE FROM users WHERE id IN (%s))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String deleteReturningEmail;
+    private final String deleteAllReturningEmails;
+
+    public UserWriteRepository(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        boolean h2 = "H2".equals(databaseProduct);
+        this.deleteReturningEmail = h2 ? H2_DELETE_RETURNING_EMAIL : DELETE_RETURNING_EMAIL;
+        this.deleteAllReturningEmails = h2 ? H2_DELETE_ALL_RETURNING_EMAILS : DELETE_ALL_RETURNING_EMAILS;
+    }
+
+    /**
+     * Записывает переданные (не null) поля и увеличивает версию одним UPDATE, возвращающим
+     * строку после изменения. Строка не изменяется, если она не найдена, её версия не совпадает
+     * с expectedVersion (null — без проверки) или переданные значения совпадают с текущими;
+     * во всех этих случаях возвращается пустой результат.
+     * Возврат строки запрашивается через getGeneratedKeys: драйвер PostgreSQL дописывает
+     * к запросу RETURNING с перечисленными столбцами.
+     */
+    public Optional<UserDTO> updateIfChanged(Long id, String name, String email, Integer age, Long expectedVersion) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET version = version + 1");
+        StringJoiner changed = new StringJoiner(" OR ", " AND (", ")");
+        List<Object> setValues = new ArrayList<>(3);
+        if (name != null) {
+            sql.append(", name = ?");
+            changed.add("name <> ?");
+            setValues.add(name);
+        }
+        if (email != null) {
+            sql.append(", email = ?");
+            changed.add("email <> ?");
+            setValues.add(email);
+        }
+        if (age != null) {
+            sql.append(", age = ?");
+            changed.add("age <> ?");
+            setValues.add(age);
+        }
+        if (setValues.isEmpty()) {
+            throw new IllegalArgumentException("At least one column must be updated");
+        }
+
+        List<Object> parameters = new ArrayList<>(setValues.size() * 2 + 2);
+        parameters.addAll(setValues);
+        sql.append(" WHERE id = ?");
+        parameters.add(id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = ?");
+            parameters.add(expectedVersion);
+        }
+        sql.append(changed);
+        parameters.addAll(setValues);
+
+        String statement = sql.toString();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        int rows = jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(statement, RETURNED_COLUMNS);
+            for (int i = 0; i < parameters.size(); i++) {
+                ps.setObject(i + 1, parameters.get(i));
+            }
+            return ps;
+        }, keyHolder);
+
+        if (rows == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(toDto(keyHolder.getKeys()));
+    }
+
+    /**
+     * Удаляет пользователя одним запросом и возвращает email удалённой строки.
+     * H2 не поддерживает DELETE ... RETURNING, для него используется SELECT из OLD TABLE.
+     */
+    public Optional<String> deleteReturningEmail(Long id) {
+        List<String> emails = jdbcTemplate.queryForList(deleteReturningEmail, String.class, id);
+        return emails.stream().findFirst();
+    }
+
+    /**
+     * Удаляет пользователей с переданными ID одним запросом и возвращает email удалённых строк по ID.
+     * Размер списка ограничивает вызывающий: все ID передаются параметрами одного IN.
+     */
+    public Map<Long, String> deleteAllReturningEmails(Collection<Long> ids) {
+        String sql = String.format(deleteAllReturningEmails, String.join(", ", Collections.nCopies(ids.size(), "?")));
+        Map<Long, String> emails = new LinkedHashMap<>(ids.size() * 2);
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> emails.put(rs.getLong("id"), rs.getString("email")),
+                ids.toArray());
+        return emails;
+    }
+
+    private static UserDTO toDto(Map<String, Object> row) {
+        return new UserDTO(
+                ((Number) row.get("id")).longValue(),
+                (String) row.get("name"),
+                (String) row.get("email"),
+                row.get("age") instanceof Number age ? age.intValue() : null,
+                toLocalDateTime(row.get("created_at")),
+                ((Number) row.get("version")).longValue()
+        );
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
@@ -0,0 +1,212 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.cache.EmailFilter;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserBatchItemResult;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.dto.ValidationError;
+import dev.dmv04.userservice.entity.User;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.OperationNotSupportedException;
+import dev.dmv04.userservice.producer.UserEventOutbox;
+import dev.dmv04.userservice.repository.UserRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Пакетное создание пользователей: занятые email проверяются запросами по множеству
+ * (только те, которые не отсеял {@link EmailFilter}; если фильтр отстал и вставка упала
+ * на уникальном email, пакет повторяется с проверкой всех email),
+ * вставка идёт JDBC-пакетами (hibernate.jdbc.batch_size, ID из пула последовательности users_seq),
+ * события CREATE записываются в outbox одним пакетом.
+ */
+@Service
+public class UserBatchService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private static final Logger logger = LoggerFactory.getLogger(UserBatchService.class);
+
+    private final UserRepository userRepository;
+    private final UserEventOutbox userEventOutbox;
+    private final UsersGeneration usersGeneration;
+    private final Validator validator;
+    private final EmailFilter emailFilter;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean sharded;
+
+    public UserBatchService(UserRepository userRepository, UserEventOutbox userEventOutbox,
+                            UsersGeneration usersGeneration, Validator validator, EmailFilter emailFilter,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${users.sharding.enabled:false}") boolean sharded) {
+        this.userRepository = userRepository;
+        this.userEventOutbox = userEventOutbox;
+        this.usersGeneration = usersGeneration;
+        this.validator = validator;
+        this.emailFilter = emailFilter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sharded = sharded;
+    }
+
+    /**
+     * Создаёт всех корректных пользователей из запроса. Некорректные элементы и элементы
+     * с уже занятым (в БД или ранее в этом же запросе) email пропускаются с ошибкой в результате.
+     */
+    public List<UserBatchItemResult> createUsers(List<CreateUserRequest> requests) {
+        UserBatchItemResult[] results = new UserBatchItemResult[requests.size()];
+
+        Map<String, Integer> candidates = new LinkedHashMap<>(requests.size() * 2);
+        for (int i = 0; i < requests.size(); i++) {
+            CreateUserRequest request = requests.get(i);
+            List<ValidationError> errors = validate(request);
+            if (!errors.isEmpty()) {
+                results[i] = UserBatchItemResult.invalid(i, request != null ? request.email() : null, errors);
+            } else if (candidates.putIfAbsent(request.email(), i) != null) {
+                results[i] = UserBatchItemResult.conflict(i, request.email(),
+                        "Email '" + request.email() + "' is duplicated in the request");
+            }
+        }
+
+        List<CreateUserRequest> valid = new ArrayList<>(candidates.size());
+        for (int index : candidates.values()) {
+            valid.add(requests.get(index));
+        }
+        List<Optional<UserDTO>> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> insertUsers(valid, false));
+        } catch (DataIntegrityViolationException e) {
+            if (!UserService.isEmailTaken(e)) {
+                throw e;
+            }
+            // фильтр этой реплики не знал о занятом email (запись другой реплики, сбой перестроения):
+            // транзакция откатилась, повторяем пакет с проверкой всех email в БД
+            logger.debug("Batch insert hit a taken email missed by the email filter, retrying with full check", e);
+            inserted = transactionTemplate.execute(status -> insertUsers(valid, true));
+        }
+
+        int i = 0;
+        for (int index : candidates.values()) {
+            String email = requests.get(index).email();
+            Optional<UserDTO> user = inserted.get(i++);
+            results[index] = user.isPresent()
+                    ? UserBatchItemResult.created(index, user.get().id(), email)
+                    : UserBatchItemResult.conflict(index, email, new EmailAlreadyExistsException(email).getMessage());
+        }
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Вставляет уже провалидированных пользователей JDBC-пакетами в одной транзакции и записывает
+     * события CREATE в outbox. Для каждого запроса возвращает созданного пользователя или пустой результат,
+     * если email занят в БД или ранее в этом же списке. Email, пропущенный устаревшим {@link EmailFilter},
+     * приводит к DataIntegrityViolationException и откату всей транзакции.
+     */
+    @Transactional
+    public List<Optional<UserDTO>> insertUsers(List<CreateUserRequest> requests) {
+        return insertUsers(requests, false);
+    }
+
+    private List<Optional<UserDTO>> insertUsers(List<CreateUserRequest> requests, boolean checkAllEmails) {
+        if (sharded) {
+            throw new OperationNotSupportedException("Batch user creation", "while users are sharded");
+        }
+        Set<String> emails = new LinkedHashSet<>(requests.size() * 2);
+        for (CreateUserRequest request : requests) {
+            if (checkAllEmails || emailFilter.mightContain(request.email())) {
+                emails.add(request.email());
+            }
+        }
+        Set<String> takenEmails = findExistingEmails(emails);
+
+        List<User> users = new ArrayList<>(requests.size());
+        List<Integer> indexes = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            CreateUserRequest request = requests.get(i);
+            if (!takenEmails.add(request.email())) {
+                continue;
+            }
+            User user = new User();
+            user.setName(request.name());
+            user.setEmail(request.email());
+            user.setAge(request.age());
+            users.add(user);
+            indexes.add(i);
+        }
+
+        List<Optional<UserDTO>> results = new ArrayList<>(Collections.nCopies(requests.size(), Optional.empty()));
+        if (users.isEmpty()) {
+            return results;
+        }
+
+        userRepository.saveAll(users);
+        userRepository.flush();
+        usersGeneration.incrementAfterCompletion();
+
+        List<UserEvent> events = new ArrayList<>(users.size());
+        List<String> createdEmails = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            results.set(indexes.get(i), Optional.of(toDto(user)));
+            events.add(new UserEvent(user.getEmail(), UserEvent.CREATE, user.getId()));
+            createdEmails.add(user.getEmail());
+        }
+        emailFilter.addAfterCommit(createdEmails);
+        userEventOutbox.enqueueAll(events);
+
+        return results;
+    }
+
+    private static UserDTO toDto(User user) {
+        return new UserDTO(user.getId(), user.getName(), user.getEmail(), user.getAge(),
+                user.getCreatedAt(), user.getVersion());
+    }
+
+    List<ValidationError> validate(CreateUserRequest request) {
+        if (request == null) {
+            return List.of(new ValidationError(null, "User data is required", null));
+        }
+        Set<ConstraintViolation<CreateUserRequest>> violations = validator.validate(request);
+        List<ValidationError> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<CreateUserRequest> violation : violations) {
+            Object invalidValue = violation.getInvalidValue();
+            errors.add(new ValidationError(
+                    violation.getPropertyPath().toString(),
+                    violation.getMessage(),
+                    invalidValue != null ? invalidValue.toString() : null
+            ));
+        }
+        return errors;
+    }
+
+    private Set<String> findExistingEmails(Set<String> emails) {
+        Set<String> existing = new HashSet<>();
+        List<String> all = new ArrayList<>(emails);
+        for (int from = 0; from < all.size(); from += UserService.LOOKUP_CHUNK_SIZE) {
+            existing.addAll(userRepository.findExistingEmails(
+                    all.subList(from, Math.min(from + UserService.LOOKUP_CHUNK_SIZE, all.size()))));
+        }
+        return existing;
+    }
+}
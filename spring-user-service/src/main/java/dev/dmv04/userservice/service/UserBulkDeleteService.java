@@ -0,0 +1,97 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.cache.EmailFilter;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.config.CacheConfig;
+import dev.dmv04.userservice.dto.UserBulkDeleteResponse;
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.exception.OperationNotSupportedException;
+import dev.dmv04.userservice.producer.UserEventOutbox;
+import dev.dmv04.userservice.repository.UserWriteRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетное удаление пользователей. ID удаляются частями по chunk-size, каждая часть —
+ * одним DELETE, возвращающим email, в своей транзакции, чтобы большое удаление не держало
+ * блокировки строк до конца. Части, удалённые до ошибки, остаются удалёнными.
+ */
+@Service
+public class UserBulkDeleteService {
+
+    private final UserWriteRepository userWriteRepository;
+    private final UserEventOutbox userEventOutbox;
+    private final UsersGeneration usersGeneration;
+    private final EmailFilter emailFilter;
+    private final Cache usersCache;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean sharded;
+
+    public UserBulkDeleteService(UserWriteRepository userWriteRepository, UserEventOutbox userEventOutbox,
+                                 UsersGeneration usersGeneration, EmailFilter emailFilter,
+                                 CacheManager cacheManager, PlatformTransactionManager transactionManager,
+                                 @Value("${users.bulk-delete.chunk-size:500}") int chunkSize,
+                                 @Value("${users.sharding.enabled:false}") boolean sharded) {
+        this.userWriteRepository = userWriteRepository;
+        this.userEventOutbox = userEventOutbox;
+        this.usersGeneration = usersGeneration;
+        this.emailFilter = emailFilter;
+        this.usersCache = cacheManager.getCache(CacheConfig.USERS_CACHE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.sharded = sharded;
+    }
+
+    /**
+     * Удаляет пользователей с переданными ID и записывает события DELETE в outbox пакетом на часть.
+     * Отсутствующие ID попадают в notFound.
+     */
+    public UserBulkDeleteResponse deleteUsers(Collection<Long> ids) {
+        if (sharded) {
+            throw new OperationNotSupportedException("Bulk user deletion", "while users are sharded");
+        }
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<Long> notFound = new ArrayList<>();
+        int deleted = 0;
+        for (int from = 0; from < distinctIds.size(); from += chunkSize) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + chunkSize, distinctIds.size()));
+            Map<Long, String> emails = transactionTemplate.execute(status -> deleteChunk(chunk));
+            deleted += emails.size();
+            for (Long id : chunk) {
+                if (!emails.containsKey(id)) {
+                    notFound.add(id);
+                }
+            }
+        }
+        return new UserBulkDeleteResponse(distinctIds.size(), deleted, notFound);
+    }
+
+    private Map<Long, String> deleteChunk(List<Long> ids) {
+        Map<Long, String> emails = userWriteRepository.deleteAllReturningEmails(ids);
+        if (emails.isEmpty()) {
+            return emails;
+        }
+        usersGeneration.incrementAfterCompletion();
+        emailFilter.recordRemovals(emails.size());
+
+        List<UserEvent> events = new ArrayList<>(emails.size());
+        emails.forEach((id, email) -> {
+            // кэш транзакционный: запись вытесняется после коммита
+            usersCache.evict(id);
+            events.add(new UserEvent(email, UserEvent.DELETE, id));
+        });
+        userEventOutbox.enqueueAll(events);
+        return emails;
+    }
+}
@@ -0,0 +1,195 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Групповая фиксация создания пользователей. Запросы, пришедшие в пределах max-wait
+ * (но не больше max-batch-size), вставляются одним JDBC-пакетом в одной транзакции,
+ * каждый вызывающий получает своего пользователя или {@link EmailAlreadyExistsException}.
+ * Вызывающий ждёт не дольше timeout; запрос, не попавший в пакет до этого, не вставляется,
+ * а попавший может быть вставлен и после ошибки ожидания. Включается свойством
+ * users.group-commit.enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "users.group-commit.enabled", havingValue = "true")
+public class UserCreateBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserCreateBatcher.class);
+
+    private final UserBatchService userBatchService;
+    private final int maxBatchSize;
+    private final long maxWaitNanos;
+    private final long timeoutNanos;
+    private final BlockingQueue<PendingCreate> queue;
+    private final DistributionSummary batchSizes;
+    private final Timer waitTimes;
+    private final Thread worker;
+
+    public UserCreateBatcher(UserBatchService userBatchService,
+                             @Value("${users.group-commit.max-batch-size:64}") int maxBatchSize,
+                             @Value("${users.group-commit.max-wait:2ms}") Duration maxWait,
+                             @Value("${users.group-commit.queue-capacity:10000}") int queueCapacity,
+                             @Value("${users.group-commit.timeout:5s}") Duration timeout,
+                             MeterRegistry meterRegistry) {
+        this.userBatchService = userBatchService;
+        this.maxBatchSize = maxBatchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.batchSizes = DistributionSummary.builder("users.group-commit.batch-size")
+                .description("Количество создаваемых пользователей в одной транзакции")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.waitTimes = Timer.builder("users.group-commit.wait")
+                .description("Время ожидания запроса на создание до начала его транзакции")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.worker = new Thread(this::run, "user-group-commit");
+        this.worker.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        worker.interrupt();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    /**
+     * Ставит запрос в очередь и ждёт фиксации пакета, в который он попал, не дольше timeout.
+     */
+    public UserDTO create(CreateUserRequest request) {
+        long started = System.nanoTime();
+        PendingCreate pending = new PendingCreate(request, started, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("User group commit queue is full",
+                        new TimeoutException("Queue stayed full for " + Duration.ofNanos(timeoutNanos)));
+            }
+            return pending.result().get(timeoutNanos - (System.nanoTime() - started), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.result().cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for user group commit", e);
+        } catch (TimeoutException e) {
+            // ещё не взятый в пакет запрос воркер пропустит
+            pending.result().cancel(false);
+            throw new IllegalStateException("Timed out waiting for user group commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("User group commit failed", e.getCause());
+        }
+    }
+
+    private void run() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingCreate next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batch.removeIf(pending -> pending.result().isDone());
+                try {
+                    if (!batch.isEmpty()) {
+                        commit(batch);
+                    }
+                } catch (Throwable e) {
+                    // воркер должен пережить любую ошибку, иначе вызывающие будут ждать до таймаута
+                    logger.error("Group commit of {} users failed", batch.size(), e);
+                    batch.forEach(pending -> pending.result().completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        queue.drainTo(batch);
+        IllegalStateException stopped = new IllegalStateException("User group commit is stopped");
+        batch.forEach(pending -> pending.result().completeExceptionally(stopped));
+    }
+
+    private void commit(List<PendingCreate> batch) {
+        long start = System.nanoTime();
+        batchSizes.record(batch.size());
+        List<CreateUserRequest> requests = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            waitTimes.record(start - pending.enqueuedAt(), TimeUnit.NANOSECONDS);
+            requests.add(pending.request());
+        }
+
+        try {
+            complete(batch, userBatchService.insertUsers(requests));
+        } catch (DataIntegrityViolationException e) {
+            // email занят конкурентной записью мимо пакета: повторяем по одному, чтобы ошибку получил только он
+            logger.debug("Group commit of {} users failed, retrying one by one", batch.size(), e);
+            for (PendingCreate pending : batch) {
+                commitSingle(pending);
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    private void commitSingle(PendingCreate pending) {
+        try {
+            complete(List.of(pending), userBatchService.insertUsers(List.of(pending.request())));
+        } catch (DataIntegrityViolationException e) {
+            pending.result().completeExceptionally(UserService.isEmailTaken(e)
+                    ? new EmailAlreadyExistsException(pending.request().email())
+                    : e);
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private static void complete(List<PendingCreate> batch, List<Optional<UserDTO>> users) {
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCreate pending = batch.get(i);
+            Optional<UserDTO> user = users.get(i);
+            if (user.isPresent()) {
+                pending.result().complete(user.get());
+            } else {
+                pending.result().completeExceptionally(new EmailAlreadyExistsException(pending.request().email()));
+            }
+        }
+    }
+
+    private record PendingCreate(CreateUserRequest request, long enqueuedAt, CompletableFuture<UserDTO> result) {
+    }
+}
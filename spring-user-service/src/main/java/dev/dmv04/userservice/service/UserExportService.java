@@ -0,0 +1,148 @@
+package dev.dmv04.userservice.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.exception.OperationNotSupportedException;
+import dev.dmv04.userservice.repository.UserExportRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+
+@Service
+public class UserExportService {
+
+    public static final String CSV_HEADER = "id,name,email,age,createdAt\n";
+
+    private final UserExportRepository userExportRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean sharded;
+
+    public UserExportService(UserExportRepository userExportRepository, ObjectMapper objectMapper,
+                             @Value("${users.sharding.enabled:false}") boolean sharded) {
+        this.userExportRepository = userExportRepository;
+        this.objectMapper = objectMapper;
+        this.sharded = sharded;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        if (sharded) {
+            throw new OperationNotSupportedException("User export", "while users are sharded");
+        }
+        switch (format) {
+            case NDJSON -> exportNdjson(out);
+            case CSV -> exportCsv(out);
+        }
+    }
+
+    private void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.setRootValueSeparator(null);
+            userExportRepository.forEachUser(rs -> {
+                try {
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", rs.getLong("id"));
+                    generator.writeStringField("name", rs.getString("name"));
+                    generator.writeStringField("email", rs.getString("email"));
+                    writeAge(generator, rs);
+                    generator.writeStringField("createdAt", createdAt(rs));
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private void exportCsv(OutputStream out) throws IOException {
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            writer.write(CSV_HEADER);
+            userExportRepository.forEachUser(rs -> {
+                try {
+                    writer.write(Long.toString(rs.getLong("id")));
+                    writer.write(',');
+                    writer.write(csvValue(rs.getString("name")));
+                    writer.write(',');
+                    writer.write(csvValue(rs.getString("email")));
+                    writer.write(',');
+                    int age = rs.getInt("age");
+                    if (!rs.wasNull()) {
+                        writer.write(Integer.toString(age));
+                    }
+                    writer.write(',');
+                    writer.write(createdAt(rs));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    private static void writeAge(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        int age = rs.getInt("age");
+        if (rs.wasNull()) {
+            generator.writeNullField("age");
+        } else {
+            generator.writeNumberField("age", age);
+        }
+    }
+
+    private static String createdAt(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return createdAt != null ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt.toLocalDateTime()) : "";
+    }
+
+    /**
+     * Значение поля CSV: в кавычках, если содержит запятую, кавычку или перевод строки.
+     */
+    public static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson")),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format fromParameter(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new InvalidRequestParameterException("format", value);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package dev.dmv04.userservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dmv04.userservice.cache.EmailFilter;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.dto.UserImportResponse;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.exception.OperationNotSupportedException;
+import dev.dmv04.userservice.producer.UserEventOutbox;
+import dev.dmv04.userservice.repository.UserImportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Потоковый импорт пользователей из CSV (заголовок с колонками name, email, age) или NDJSON.
+ * Файл обрабатывается частями по chunk-size строк, каждая часть — в своей транзакции: в PostgreSQL
+ * строки части загружаются через COPY во временную таблицу и переносятся в users одним запросом,
+ * в остальных БД (H2 в тестах) вставляются пакетами через {@link UserBatchService#insertUsers}.
+ * При ошибке (обрыв потока, отказ БД) уже закоммиченные части остаются. Строки с ошибками
+ * пропускаются, пользователи с занятым email не создаются. События CREATE пишутся в outbox
+ * пакетом на часть. Скорость импорта логируется раз в progress-interval и доступна как счётчик
+ * users.import.rows.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    public enum Format { CSV, NDJSON }
+
+    private final UserImportRepository userImportRepository;
+    private final UserBatchService userBatchService;
+    private final UserEventOutbox userEventOutbox;
+    private final UsersGeneration usersGeneration;
+    private final EmailFilter emailFilter;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean copySupported;
+    private final int chunkSize;
+    private final Duration progressInterval;
+    private final boolean sharded;
+    private final Counter importedRows;
+
+    public UserImportService(UserImportRepository userImportRepository, UserBatchService userBatchService,
+                             UserEventOutbox userEventOutbox, UsersGeneration usersGeneration,
+                             EmailFilter emailFilter, ObjectMapper objectMapper, EntityManager entityManager,
+                             PlatformTransactionManager transactionManager, DataSource dataSource,
+                             @Value("${users.import.chunk-size:10000}") int chunkSize,
+                             @Value("${users.import.progress-interval:5s}") Duration progressInterval,
+                             @Value("${users.sharding.enabled:false}") boolean sharded,
+                             MeterRegistry meterRegistry) throws MetaDataAccessException {
+        this.userImportRepository = userImportRepository;
+        this.userBatchService = userBatchService;
+        this.userEventOutbox = userEventOutbox;
+        this.usersGeneration = usersGeneration;
+        this.emailFilter = emailFilter;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        String databaseProduct = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.copySupported = "PostgreSQL".equals(databaseProduct);
+        this.chunkSize = chunkSize;
+        this.progressInterval = progressInterval;
+        this.sharded = sharded;
+        this.importedRows = Counter.builder("users.import.rows")
+                .description("Пользователи, созданные импортом")
+                .register(meterRegistry);
+    }
+
+    public UserImportResponse importUsers(InputStream input, Format format) throws IOException {
+        if (sharded) {
+            throw new OperationNotSupportedException("User import", "while users are sharded");
+        }
+        Progress progress = new Progress();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            Rows rows = new Rows(reader, format, progress);
+            if (copySupported) {
+                importWithCopy(rows, progress);
+            } else {
+                importWithBatches(rows, progress);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        UserImportResponse response = progress.toResponse();
+        logger.info("User import finished: {} rows read, {} invalid, {} imported, {} skipped in {} ms ({} rows/s)",
+                response.read(), response.invalid(), response.imported(), response.skipped(),
+                response.elapsedMillis(), response.rowsPerSecond());
+        return response;
+    }
+
+    private void importWithCopy(Rows rows, Progress progress) {
+        while (rows.hasNext()) {
+            Iterator<CreateUserRequest> chunk = limit(rows, chunkSize);
+            transactionTemplate.executeWithoutResult(status -> {
+                long copied = userImportRepository.copyToStaging(chunk);
+                Map<Long, String> created = userImportRepository.mergeChunk(0, copied);
+                List<UserEvent> events = new ArrayList<>(created.size());
+                created.forEach((id, email) -> events.add(new UserEvent(email, UserEvent.CREATE, id)));
+                userEventOutbox.enqueueAll(events);
+                // outbox пишется через JPA: освобождаем контекст, чтобы память не росла с размером файла
+                entityManager.flush();
+                entityManager.clear();
+                emailFilter.addAfterCommit(created.values());
+                usersGeneration.incrementAfterCompletion();
+                progress.imported(created.size());
+            });
+        }
+    }
+
+    private static <T> Iterator<T> limit(Iterator<T> iterator, int limit) {
+        return new Iterator<>() {
+            private int taken;
+
+            @Override
+            public boolean hasNext() {
+                return taken < limit && iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                taken++;
+                return iterator.next();
+            }
+        };
+    }
+
+    private void importWithBatches(Rows rows, Progress progress) {
+        int batchSize = Math.min(chunkSize, UserBatchService.MAX_BATCH_SIZE);
+        List<CreateUserRequest> chunk = new ArrayList<>(batchSize);
+        while (rows.hasNext()) {
+            chunk.add(rows.next());
+            if (chunk.size() == batchSize) {
+                insertChunk(chunk, progress);
+            }
+        }
+        insertChunk(chunk, progress);
+    }
+
+    private void insertChunk(List<CreateUserRequest> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Optional<UserDTO>> created = userBatchService.insertUsers(chunk);
+        progress.imported((int) created.stream().filter(Optional::isPresent).count());
+        chunk.clear();
+    }
+
+    private final class Progress {
+
+        private final long started = System.nanoTime();
+        private long lastReport = started;
+        private long read;
+        private long invalid;
+        private long imported;
+
+        void read() {
+            read++;
+            report("read");
+        }
+
+        void invalid() {
+            invalid++;
+        }
+
+        void imported(int count) {
+            imported += count;
+            importedRows.increment(count);
+            report("merge");
+        }
+
+        private void report(String phase) {
+            long now = System.nanoTime();
+            if (now - lastReport < progressInterval.toNanos()) {
+                return;
+            }
+            lastReport = now;
+            logger.info("User import {}: {} rows read, {} imported, {} rows/s",
+                    phase, read, imported, rowsPerSecond(phase.equals("read") ? read : imported, now));
+        }
+
+        private long rowsPerSecond(long rows, long now) {
+            long elapsed = Math.max(1, now - started);
+            return rows * 1_000_000_000L / elapsed;
+        }
+
+        UserImportResponse toResponse() {
+            long now = System.nanoTime();
+            long valid = read - invalid;
+            return new UserImportResponse(read, invalid, imported, valid - imported,
+                    Duration.ofNanos(now - started).toMillis(), rowsPerSecond(read, now));
+        }
+    }
+
+    /**
+     * Читает строки файла по одной и отдаёт только записи, прошедшие валидацию {@link CreateUserRequest}:
+     * строка без обязательного поля, в том числе age, считается ошибочной и не попадает в COPY.
+     */
+    private final class Rows implements Iterator<CreateUserRequest> {
+
+        private final BufferedReader reader;
+        private final Format format;
+        private final Progress progress;
+        private int nameColumn = -1;
+        private int emailColumn = -1;
+        private int ageColumn = -1;
+        private CreateUserRequest next;
+
+        private Rows(BufferedReader reader, Format format, Progress progress) throws IOException {
+            this.reader = reader;
+            this.format = format;
+            this.progress = progress;
+            if (format == Format.CSV) {
+                readHeader();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (next == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    progress.read();
+                    CreateUserRequest request = parse(line);
+                    if (request != null && userBatchService.validate(request).isEmpty()) {
+                        next = request;
+                    } else {
+                        progress.invalid();
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public CreateUserRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            CreateUserRequest request = next;
+            next = null;
+            return request;
+        }
+
+        private void readHeader() throws IOException {
+            String header = reader.readLine();
+            List<String> columns = header != null ? splitCsv(header) : List.of();
+            for (int i = 0; i < columns.size(); i++) {
+                switch (columns.get(i).trim().toLowerCase(Locale.ROOT)) {
+                    case "name" -> nameColumn = i;
+                    case "email" -> emailColumn = i;
+                    case "age" -> ageColumn = i;
+                    default -> {
+                    }
+                }
+            }
+            if (nameColumn < 0 || emailColumn < 0 || ageColumn < 0) {
+                throw new InvalidRequestParameterException("CSV header must contain name, email and age columns");
+            }
+        }
+
+        private CreateUserRequest parse(String line) {
+            if (format == Format.NDJSON) {
+                try {
+                    return objectMapper.readValue(line, CreateUserRequest.class);
+                } catch (JsonProcessingException e) {
+                    return null;
+                }
+            }
+            List<String> values = splitCsv(line);
+            if (values.size() <= Math.max(nameColumn, Math.max(emailColumn, ageColumn))) {
+                return null;
+            }
+            try {
+                return new CreateUserRequest(values.get(nameColumn), values.get(emailColumn),
+                        Integer.valueOf(values.get(ageColumn).trim()));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Разбирает строку CSV с полями в двойных кавычках ("" внутри кавычек — кавычка).
+     * Переводы строк внутри полей не поддерживаются.
+     */
+    static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+}
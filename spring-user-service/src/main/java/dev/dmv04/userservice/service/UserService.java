@@ -1,92 +1,285 @@
 package dev.dmv04.userservice.service;
 
+import dev.dmv04.userservice.cache.EmailFilter;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.config.CacheConfig;
 import dev.dmv04.userservice.dto.CreateUserRequest;
 import dev.dmv04.userservice.dto.UpdateUserRequest;
 import dev.dmv04.userservice.dto.UserDTO;
 import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.dto.UserField;
 import dev.dmv04.userservice.entity.User;
 import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.PreconditionFailedException;
 import dev.dmv04.userservice.exception.UserNotFoundException;
-import dev.dmv04.userservice.producer.UserEventProducer;
+import dev.dmv04.userservice.producer.UserEventOutbox;
 import dev.dmv04.userservice.repository.UserRepository;
+import dev.dmv04.userservice.repository.UserWriteRepository;
+import dev.dmv04.userservice.sharding.ShardedUserRepository;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 public class UserService {
 
+    static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    static final String UNIQUE_VIOLATION = "23505";
+    /** Колонка в сообщении: {@code Key (email)=...} в PostgreSQL, {@code USERS(EMAIL ...)} в H2. */
+    private static final Pattern EMAIL_COLUMN = Pattern.compile("\\(\\s*\"?email\"?\\b", Pattern.CASE_INSENSITIVE);
+
     private final UserRepository userRepository;
-    private final UserEventProducer userEventProducer;
+    private final UserEventOutbox userEventOutbox;
+    private final UsersGeneration usersGeneration;
+    private final UserWriteRepository userWriteRepository;
+    private final EmailFilter emailFilter;
+    // null, если users не шардирована
+    private final ShardedUserRepository shards;
 
-    public UserService(UserRepository userRepository, UserEventProducer userEventProducer) {
+    public UserService(UserRepository userRepository, UserEventOutbox userEventOutbox,
+                       UsersGeneration usersGeneration, UserWriteRepository userWriteRepository,
+                       EmailFilter emailFilter, ObjectProvider<ShardedUserRepository> shardedUserRepository) {
         this.userRepository = userRepository;
-        this.userEventProducer = userEventProducer;
+        this.userEventOutbox = userEventOutbox;
+        this.usersGeneration = usersGeneration;
+        this.userWriteRepository = userWriteRepository;
+        this.emailFilter = emailFilter;
+        this.shards = shardedUserRepository.getIfAvailable();
     }
 
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAllByOrderByIdAsc().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        if (shards != null) {
+            return shards.findAfter(0L, null, UserField.ALL);
+        }
+        return userRepository.findAllDtos();
+    }
+
+    /**
+     * Как {@link #getAllUsers()}, но выбирает из БД только указанные поля.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> getAllUsers(Set<UserField> fields) {
+        if (shards != null) {
+            return shards.findAfter(0L, null, fields);
+        }
+        if (UserField.isAll(fields)) {
+            return userRepository.findAllDtos();
+        }
+        return userRepository.findSparseDtos(fields, null, Limit.unlimited());
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsersAfter(Long after, int limit) {
+        return getUsersAfter(after, limit, UserField.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsersAfter(Long after, int limit, Set<UserField> fields) {
+        if (shards != null) {
+            return shards.findAfter(after, limit, fields);
+        }
+        if (UserField.isAll(fields)) {
+            return userRepository.findDtosAfter(after, Limit.of(limit));
+        }
+        return userRepository.findSparseDtos(fields, after, Limit.of(limit));
+    }
+
+    /**
+     * Возвращает найденных пользователей в порядке запрошенных ID, без повторов.
+     * ID запрашиваются пачками по {@value #LOOKUP_CHUNK_SIZE} в одном IN-запросе на пачку.
+     */
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsersByIds(Collection<Long> ids) {
+        return getUsersByIds(ids, UserField.ALL);
+    }
+
+    @Transactional(readOnly = true)
+    public List<UserDTO> getUsersByIds(Collection<Long> ids, Set<UserField> fields) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, UserDTO> found = shards != null
+                ? shards.findByIds(distinctIds, fields)
+                : findByIds(distinctIds, fields);
+        List<UserDTO> result = new ArrayList<>(found.size());
+        for (Long id : distinctIds) {
+            UserDTO dto = found.get(id);
+            if (dto != null) {
+                result.add(dto);
+            }
+        }
+        return result;
     }
 
+    /**
+     * Создаёт пользователя одним INSERT. Занятость email проверяет уникальный индекс users.email,
+     * а не предварительный SELECT, поэтому конкурентные запросы с одним email не создают дубликатов.
+     */
     @Transactional
     public UserDTO createUser(CreateUserRequest request) {
-        if (userRepository.existsByEmail(request.email())) {
-            throw new EmailAlreadyExistsException(request.email());
+        if (shards != null) {
+            UserDTO created = shards.insert(request.name(), request.email(), request.age());
+            usersGeneration.incrementAfterCompletion();
+            emailFilter.addAfterCommit(created.email());
+            userEventOutbox.enqueue(new UserEvent(created.email(), UserEvent.CREATE, created.id()));
+            return created;
         }
         User user = new User();
         user.setName(request.name());
         user.setEmail(request.email());
         user.setAge(request.age());
-        User saved = userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (isEmailTaken(e)) {
+                throw new EmailAlreadyExistsException(request.email());
+            }
+            throw e;
+        }
+        usersGeneration.incrementAfterCompletion();
+        emailFilter.addAfterCommit(saved.getEmail());
 
-        userEventProducer.sendUserEvent(user.getEmail(), UserEvent.CREATE);
+        userEventOutbox.enqueue(new UserEvent(saved.getEmail(), UserEvent.CREATE, saved.getId()));
 
         return toDto(saved);
     }
 
+    /**
+     * Строка, прочитанная с возможно отстающей реплики, возвращается, но не кэшируется.
+     */
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id",
+            unless = "T(dev.dmv04.userservice.datasource.ReadConsistency).isPossiblyStale()")
     public UserDTO getUserById(Long id) {
-        User user = userRepository.findById(id)
+        return findDtoById(id)
                 .orElseThrow(() -> new UserNotFoundException(id));
-        return toDto(user);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public UserDTO updateUser(Long id, UpdateUserRequest request) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
+        return updateUser(id, request, null);
+    }
 
-        if (request.name() != null && !request.name().isBlank()) {
-            user.setName(request.name().trim());
+    /**
+     * Обновляет переданные поля пользователя одним UPDATE, если версия совпадает с expectedVersion
+     * (null — без проверки). Если значения не меняются, запись не выполняется и возвращается
+     * текущая строка. Только в этом случае и при ошибке выполняется второй запрос — чтение строки,
+     * чтобы отличить отсутствие пользователя и несовпадение версии.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    public UserDTO updateUser(Long id, UpdateUserRequest request, Long expectedVersion) {
+        String name = request.name() != null && !request.name().isBlank() ? request.name().trim() : null;
+        String email = request.email() != null && !request.email().isBlank() ? request.email().trim() : null;
+        Integer age = request.age();
+
+        Optional<UserDTO> updated = Optional.empty();
+        if (name != null || email != null || age != null) {
+            try {
+                updated = shards != null
+                        ? shards.updateIfChanged(id, name, email, age, expectedVersion)
+                        : userWriteRepository.updateIfChanged(id, name, email, age, expectedVersion);
+            } catch (DuplicateKeyException e) {
+                throw new EmailAlreadyExistsException(email);
+            }
         }
 
-        if (request.email() != null && !request.email().isBlank()) {
-            String newEmail = request.email().trim();
-            if (!newEmail.equals(user.getEmail()) && userRepository.existsByEmail(newEmail)) {
-                throw new EmailAlreadyExistsException(newEmail);
+        if (updated.isEmpty()) {
+            UserDTO current = findDtoById(id)
+                    .orElseThrow(() -> new UserNotFoundException(id));
+            if (expectedVersion != null && !expectedVersion.equals(current.version())) {
+                throw new PreconditionFailedException(id, expectedVersion);
             }
-            user.setEmail(newEmail);
+            return current;
         }
 
-        if (request.age() != null) {
-            user.setAge(request.age());
+        usersGeneration.incrementAfterCompletion();
+        if (email != null) {
+            emailFilter.addAfterCommit(email);
         }
 
-        User updated = userRepository.save(user);
-        return toDto(updated);
+        userEventOutbox.enqueue(new UserEvent(updated.get().email(), UserEvent.UPDATE, id));
+
+        return updated.get();
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     public void deleteUser(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new UserNotFoundException(id));
-        userRepository.deleteById(id);
+        Optional<String> deleted = shards != null
+                ? shards.deleteReturningEmail(id)
+                : userWriteRepository.deleteReturningEmail(id);
+        String email = deleted.orElseThrow(() -> new UserNotFoundException(id));
+        usersGeneration.incrementAfterCompletion();
+        emailFilter.recordRemoval();
 
-        userEventProducer.sendUserEvent(user.getEmail(), UserEvent.DELETE);
+        userEventOutbox.enqueue(new UserEvent(email, UserEvent.DELETE, id));
+    }
+
+    private Map<Long, UserDTO> findByIds(List<Long> distinctIds, Set<UserField> fields) {
+        boolean allFields = UserField.isAll(fields);
+        Map<Long, UserDTO> found = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            List<UserDTO> dtos = allFields
+                    ? userRepository.findDtosByIdIn(chunk)
+                    : userRepository.findSparseDtosByIdIn(fields, chunk);
+            for (UserDTO dto : dtos) {
+                found.put(dto.id(), dto);
+            }
+        }
+        return found;
+    }
+
+    private Optional<UserDTO> findDtoById(Long id) {
+        return shards != null ? shards.findById(id) : userRepository.findDtoById(id);
+    }
+
+    /**
+     * Нарушена ли уникальность email: по имени ограничения {@link User#EMAIL_CONSTRAINT} или,
+     * если схема создана с другим именем (Hibernate называет ограничения {@code UK...}),
+     * по SQLSTATE {@value #UNIQUE_VIOLATION} с колонкой email в сообщении драйвера.
+     * Другие нарушения, в том числе первичного ключа при отставшей последовательности ID,
+     * означают не занятый email, а ошибку.
+     */
+    static boolean isEmailTaken(DataIntegrityViolationException e) {
+        String constraint = null;
+        SQLException sqlException = null;
+        for (Throwable cause = e.getCause(); cause != null && sqlException == null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                constraint = violation.getConstraintName();
+            }
+            if (cause instanceof SQLException sql) {
+                sqlException = sql;
+            }
+        }
+        if (constraint != null && constraint.toLowerCase(Locale.ROOT).contains(User.EMAIL_CONSTRAINT)) {
+            return true;
+        }
+        return sqlException != null
+                && UNIQUE_VIOLATION.equals(sqlException.getSQLState())
+                && sqlException.getMessage() != null
+                && EMAIL_COLUMN.matcher(sqlException.getMessage()).find();
     }
 
     private UserDTO toDto(User user) {
@@ -95,7 +288,8 @@ public class UserService {
                 user.getName(),
                 user.getEmail(),
                 user.getAge(),
-                user.getCreatedAt()
+                user.getCreatedAt(),
+                user.getVersion()
         );
     }
 }
@@ -0,0 +1,174 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Объединяет обновления одного пользователя, пришедшие в пределах окна window, в одну запись в БД.
+ * Поля сливаются в порядке поступления (последнее переданное значение побеждает), все участники
+ * получают одно и то же итоговое представление пользователя. Если объединённая запись отклонена
+ * из-за занятого email, обновления применяются по одному, и ошибку получают только виновные.
+ * Вызывающий ждёт не дольше timeout и получает 503; ещё не записанное обновление при этом
+ * отбрасывается, а уже попавшее в запись может быть применено. Включается свойством users.update-coalescing.enabled.
+ */
+@Component
+@ConditionalOnProperty(name = "users.update-coalescing.enabled", havingValue = "true")
+public class UserUpdateCoalescer {
+
+    private final UserService userService;
+    private final long windowNanos;
+    private final long timeoutNanos;
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentHashMap<Long, PendingUpdates> pending = new ConcurrentHashMap<>();
+    private final Counter writes;
+    private final Counter absorbed;
+
+    public UserUpdateCoalescer(UserService userService,
+                               @Value("${users.update-coalescing.window:5ms}") Duration window,
+                               @Value("${users.update-coalescing.threads:4}") int threads,
+                               @Value("${users.update-coalescing.timeout:5s}") Duration timeout,
+                               MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.windowNanos = window.toNanos();
+        this.timeoutNanos = timeout.toNanos();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-update-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writes = Counter.builder("users.update-coalescing.writes")
+                .description("Успешные записи в БД после объединения обновлений")
+                .register(meterRegistry);
+        this.absorbed = Counter.builder("users.update-coalescing.absorbed")
+                .description("Обновления, применённые в составе чужой записи")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Ставит обновление в очередь пользователя и ждёт записи, в которую оно попало, не дольше timeout.
+     */
+    public UserDTO update(Long id, UpdateUserRequest request) {
+        PendingUpdate update = new PendingUpdate(request, new CompletableFuture<>());
+        PendingUpdates updates = pending.computeIfAbsent(id, key -> new PendingUpdates());
+        updates.queue.add(update);
+        if (updates.scheduled.compareAndSet(false, true)) {
+            scheduler.schedule(() -> flush(id, updates), windowNanos, TimeUnit.NANOSECONDS);
+        }
+        try {
+            return update.result().get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            update.result().cancel(false);
+            throw new IllegalStateException("Interrupted while waiting for coalesced user update", e);
+        } catch (TimeoutException e) {
+            // ещё не взятое в запись обновление flush пропустит
+            update.result().cancel(false);
+            throw new ServiceOverloadedException("Timed out waiting for user update, retry later", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Coalesced user update failed", e.getCause());
+        }
+    }
+
+    private void flush(Long id, PendingUpdates updates) {
+        updates.scheduled.set(false);
+        List<PendingUpdate> batch = new ArrayList<>();
+        PendingUpdate next;
+        while ((next = updates.queue.poll()) != null) {
+            if (!next.result().isDone()) {
+                batch.add(next);
+            }
+        }
+        if (updates.queue.isEmpty()) {
+            pending.remove(id, updates);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            UserDTO user = userService.updateUser(id, merge(batch));
+            writes.increment();
+            absorbed.increment(batch.size() - 1);
+            batch.forEach(update -> update.result().complete(user));
+        } catch (EmailAlreadyExistsException e) {
+            if (batch.size() == 1) {
+                batch.get(0).result().completeExceptionally(e);
+                return;
+            }
+            for (PendingUpdate update : batch) {
+                applySingle(id, update);
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(update -> update.result().completeExceptionally(e));
+        }
+    }
+
+    private void applySingle(Long id, PendingUpdate update) {
+        if (update.result().isDone()) {
+            return;
+        }
+        try {
+            update.result().complete(userService.updateUser(id, update.request()));
+            writes.increment();
+        } catch (RuntimeException e) {
+            update.result().completeExceptionally(e);
+        }
+    }
+
+    private static UpdateUserRequest merge(List<PendingUpdate> batch) {
+        String name = null;
+        String email = null;
+        Integer age = null;
+        for (PendingUpdate update : batch) {
+            UpdateUserRequest request = update.request();
+            if (request.name() != null && !request.name().isBlank()) {
+                name = request.name();
+            }
+            if (request.email() != null && !request.email().isBlank()) {
+                email = request.email();
+            }
+            if (request.age() != null) {
+                age = request.age();
+            }
+        }
+        return new UpdateUserRequest(name, email, age);
+    }
+
+    private static final class PendingUpdates {
+        private final ConcurrentLinkedQueue<PendingUpdate> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+
+    private record PendingUpdate(UpdateUserRequest request, CompletableFuture<UserDTO> result) {
+    }
+}
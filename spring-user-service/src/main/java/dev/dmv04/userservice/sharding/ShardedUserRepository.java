@@ -0,0 +1,297 @@
+package dev.dmv04.userservice.sharding;
+
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.repository.UserWriteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Таблица users, разнесённая по шардам. Шард пользователя определяется хешем ID на
+ * {@link ConsistentHashRing}, ID выдаёт {@link SnowflakeIdGenerator}. Уникальность email
+ * обеспечивает индекс user_email_index в основной БД: он изменяется в текущей транзакции
+ * основной БД до записи в шард, поэтому занятый email отклоняется до изменения шарда.
+ * Запись в шард выполняется в транзакции шарда, привязанной к транзакции основной БД:
+ * она откатывается вместе с основной и фиксируется сразу после её коммита. Строка шарда
+ * поэтому не бывает видна без записи в индексе; если коммит шарда не удастся уже после
+ * коммита основной БД, в индексе останется запись без строки, и вызывающий получит ошибку.
+ * Вне транзакции запись в шард идёт в автокоммите.
+ * Выборки по нескольким шардам сливаются по ID (k-way merge), поэтому порядок и курсорная
+ * пагинация совпадают с нешардированной таблицей.
+ */
+public class ShardedUserRepository implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedUserRepository.class);
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+    private static final String COLUMNS = "id, name, email, age, created_at, version";
+    private static final RowMapper<UserDTO> USER_MAPPER = (rs, rowNum) -> new UserDTO(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("email"),
+            rs.getObject("age", Integer.class),
+            rs.getTimestamp("created_at").toLocalDateTime(),
+            rs.getLong("version")
+    );
+
+    private final Map<String, DataSource> shardDataSources;
+    private final Map<String, Shard> shards = new LinkedHashMap<>();
+    private final ConsistentHashRing ring;
+    private final SnowflakeIdGenerator idGenerator;
+    private final JdbcTemplate index;
+
+    public ShardedUserRepository(Map<String, DataSource> shardDataSources, int virtualNodes,
+                                 SnowflakeIdGenerator idGenerator, DataSource indexDataSource)
+            throws MetaDataAccessException {
+        this.shardDataSources = shardDataSources;
+        for (Map.Entry<String, DataSource> entry : shardDataSources.entrySet()) {
+            shards.put(entry.getKey(), new Shard(entry.getKey(), entry.getValue(),
+                    new JdbcTemplate(entry.getValue()), new UserWriteRepository(entry.getValue())));
+        }
+        this.ring = new ConsistentHashRing(shardDataSources.keySet(), virtualNodes);
+        this.idGenerator = idGenerator;
+        this.index = new JdbcTemplate(indexDataSource);
+    }
+
+    public String shardFor(long id) {
+        return ring.shardFor(id);
+    }
+
+    public boolean existsByEmail(String email) {
+        return !index.queryForList("SELECT user_id FROM user_email_index WHERE email = ?", Long.class, email)
+                .isEmpty();
+    }
+
+    public UserDTO insert(String name, String email, Integer age) {
+        if (age == null) {
+            throw new InvalidRequestParameterException("age", null);
+        }
+        long id = idGenerator.nextId();
+        try {
+            index.update("INSERT INTO user_email_index (user_id, email) VALUES (?, ?)", id, email);
+        } catch (DuplicateKeyException e) {
+            throw new EmailAlreadyExistsException(email);
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        shardForWrite(id).jdbcTemplate.update(
+                "INSERT INTO users (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, 0)",
+                id, name, email, age, Timestamp.valueOf(createdAt));
+        return new UserDTO(id, name, email, age, createdAt, 0L);
+    }
+
+    public Optional<UserDTO> findById(long id) {
+        return shard(id).jdbcTemplate.query("SELECT " + COLUMNS + " FROM users WHERE id = ?", USER_MAPPER, id)
+                .stream()
+                .findFirst();
+    }
+
+    /**
+     * Как {@link UserWriteRepository#updateIfChanged}; новый email сначала занимается в индексе.
+     */
+    public Optional<UserDTO> updateIfChanged(Long id, String name, String email, Integer age, Long expectedVersion) {
+        if (email != null) {
+            try {
+                index.update("UPDATE user_email_index SET email = ? WHERE user_id = ? AND email <> ?",
+                        email, id, email);
+            } catch (DuplicateKeyException e) {
+                throw new EmailAlreadyExistsException(email);
+            }
+        }
+        return shardForWrite(id).writeRepository.updateIfChanged(id, name, email, age, expectedVersion);
+    }
+
+    public Optional<String> deleteReturningEmail(Long id) {
+        Optional<String> email = shardForWrite(id).writeRepository.deleteReturningEmail(id);
+        if (email.isPresent()) {
+            index.update("DELETE FROM user_email_index WHERE user_id = ?", id);
+        }
+        return email;
+    }
+
+    /**
+     * Пользователи с ID больше after в порядке ID, не больше limit (null — все).
+     * Каждый шард возвращает свои первые limit строк, результат собирается слиянием.
+     */
+    public List<UserDTO> findAfter(long after, Integer limit, Set<UserField> fields) {
+        String sql = "SELECT " + COLUMNS + " FROM users WHERE id > ? ORDER BY id"
+                + (limit != null ? " LIMIT " + limit : "");
+        List<Iterator<UserDTO>> perShard = new ArrayList<>(shards.size());
+        for (Shard shard : shards.values()) {
+            perShard.add(shard.jdbcTemplate.query(sql, USER_MAPPER, after).iterator());
+        }
+        return merge(perShard, limit != null ? limit : Integer.MAX_VALUE, fields);
+    }
+
+    /**
+     * Пользователи с переданными ID по одному IN-запросу на пачку ID каждого шарда.
+     */
+    public Map<Long, UserDTO> findByIds(Collection<Long> ids, Set<UserField> fields) {
+        Map<String, List<Long>> idsByShard = new HashMap<>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(ring.shardFor(id), shard -> new ArrayList<>()).add(id);
+        }
+        Map<Long, UserDTO> found = new HashMap<>(ids.size() * 2);
+        idsByShard.forEach((name, shardIds) -> {
+            JdbcTemplate jdbcTemplate = shards.get(name).jdbcTemplate;
+            for (int from = 0; from < shardIds.size(); from += LOOKUP_CHUNK_SIZE) {
+                List<Long> chunk = shardIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, shardIds.size()));
+                String sql = "SELECT " + COLUMNS + " FROM users WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                for (UserDTO user : jdbcTemplate.query(sql, USER_MAPPER, chunk.toArray())) {
+                    found.put(user.id(), UserField.narrow(user, fields));
+                }
+            }
+        });
+        return found;
+    }
+
+    private static List<UserDTO> merge(List<Iterator<UserDTO>> sources, int limit, Set<UserField> fields) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparingLong(head -> head.user.id()));
+        for (Iterator<UserDTO> source : sources) {
+            if (source.hasNext()) {
+                heads.add(new Head(source.next(), source));
+            }
+        }
+        List<UserDTO> result = new ArrayList<>();
+        while (!heads.isEmpty() && result.size() < limit) {
+            Head head = heads.poll();
+            result.add(UserField.narrow(head.user, fields));
+            if (head.source.hasNext()) {
+                heads.add(new Head(head.source.next(), head.source));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Закрывает пулы соединений шардов.
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource dataSource : shardDataSources.values()) {
+            if (dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private Shard shard(long id) {
+        return shards.get(ring.shardFor(id));
+    }
+
+    /**
+     * Шард пользователя, соединение которого участвует в текущей транзакции основной БД.
+     */
+    private Shard shardForWrite(long id) {
+        Shard shard = shard(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.hasResource(shard)) {
+            ShardTransaction transaction = new ShardTransaction(shard);
+            TransactionSynchronizationManager.bindResource(shard, transaction);
+            TransactionSynchronizationManager.registerSynchronization(transaction);
+        }
+        return shard;
+    }
+
+    private record Shard(String name, DataSource dataSource, JdbcTemplate jdbcTemplate,
+                         UserWriteRepository writeRepository) {
+    }
+
+    /**
+     * Транзакция шарда на время транзакции основной БД. Соединение берётся через
+     * {@link DataSourceUtils}, поэтому все запросы шарда в этой транзакции идут через него,
+     * и удерживается до завершения, чтобы не вернуться в пул с незафиксированными изменениями.
+     * Выполняется раньше синхронизации, которая закрывает соединение.
+     */
+    private static final class ShardTransaction implements TransactionSynchronization {
+
+        private final Shard shard;
+        private final Connection connection;
+
+        private ShardTransaction(Shard shard) {
+            this.shard = shard;
+            this.connection = DataSourceUtils.getConnection(shard.dataSource);
+            try {
+                connection.setAutoCommit(false);
+            } catch (SQLException e) {
+                DataSourceUtils.releaseConnection(connection, shard.dataSource);
+                throw new CannotGetJdbcConnectionException("Could not begin transaction on shard " + shard.name, e);
+            }
+        }
+
+        @Override
+        public int getOrder() {
+            return DataSourceUtils.CONNECTION_SYNCHRONIZATION_ORDER - 1;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResource(shard);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(shard, this);
+        }
+
+        @Override
+        public void afterCommit() {
+            try {
+                connection.commit();
+            } catch (SQLException e) {
+                logger.error("Shard {} failed to commit after the primary transaction was committed", shard.name, e);
+                throw new TransactionSystemException("Could not commit transaction on shard " + shard.name, e);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(shard);
+            try {
+                if (status != STATUS_COMMITTED) {
+                    connection.rollback();
+                }
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.warn("Could not roll back transaction on shard {}", shard.name, e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, shard.dataSource);
+            }
+        }
+    }
+
+    private record Head(UserDTO user, Iterator<UserDTO> source) {
+    }
+}
@@ -0,0 +1,45 @@
+package dev.dmv04.userservice.sharding;
+
+import java.time.Instant;
+
+/**
+ * Генератор ID без обращения к БД: 41 бит — миллисекунды от {@link #EPOCH}, 10 бит — номер
+ * экземпляра, 12 бит — счётчик в пределах миллисекунды. ID одного экземпляра строго возрастают,
+ * ID разных экземпляров упорядочены по времени создания с точностью до расхождения часов.
+ * При переводе часов назад генератор продолжает выдавать ID от последней использованной
+ * миллисекунды, а не ждёт.
+ */
+public class SnowflakeIdGenerator {
+
+    public static final Instant EPOCH = Instant.parse("2024-01-01T00:00:00Z");
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("nodeId must be in [0, " + MAX_NODE_ID + "]");
+        }
+        this.nodeId = nodeId;
+    }
+
+    public synchronized long nextId() {
+        long millis = Math.max(System.currentTimeMillis() - EPOCH.toEpochMilli(), lastMillis);
+        if (millis == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                millis++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = millis;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
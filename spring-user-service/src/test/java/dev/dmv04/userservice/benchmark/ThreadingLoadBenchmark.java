@@ -0,0 +1,207 @@
+package dev.dmv04.userservice.benchmark;
+
+import dev.dmv04.userservice.Application;
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.reactive.ReactiveUserService;
+import dev.dmv04.userservice.reactive.ReactiveUserServiceApplication;
+import dev.dmv04.userservice.service.UserBatchService;
+import dev.dmv04.userservice.service.UserService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Нагрузочное сравнение обработки запросов на потоках платформы (пул Tomcat), на виртуальных
+ * потоках со шлюзом БД и на реактивном стеке (WebFlux + R2DBC). Для каждого режима поднимает
+ * приложение на случайном порту, создаёт пользователей и для каждого уровня из load.concurrency
+ * (через запятую, например 500,2000,5000) в течение load.duration держит столько клиентов,
+ * запрашивающих GET /api/users/{id} со случайным ID без кэша; печатает пропускную способность
+ * и p50/p99. Режимы выбираются -Dload.modes (по умолчанию platform,virtual,reactive).
+ * По умолчанию работает с H2 в памяти; для сравнения с реальной задержкой БД передайте
+ * -Dload.url, -Dload.r2dbc-url, -Dload.username, -Dload.password (PostgreSQL со схемой,
+ * созданной сервлетным стеком).
+ * Запуск: mvn test-compile, затем main из IDE или java -cp с тестовым classpath.
+ */
+public class ThreadingLoadBenchmark {
+
+    private static final int[] CONCURRENCY = Arrays.stream(System.getProperty("load.concurrency", "500").split(","))
+            .mapToInt(level -> Integer.parseInt(level.trim()))
+            .toArray();
+    private static final List<String> MODES = List.of(System.getProperty("load.modes", "platform,virtual,reactive")
+            .split(","));
+    private static final Duration WARMUP = Duration.parse(System.getProperty("load.warmup", "PT5S"));
+    private static final Duration DURATION = Duration.parse(System.getProperty("load.duration", "PT20S"));
+    private static final int USERS = Integer.getInteger("load.users", 10_000);
+
+    public static void main(String[] args) throws Exception {
+        List<String> results = new ArrayList<>();
+        for (String mode : MODES) {
+            results.addAll(switch (mode.trim()) {
+                case "platform" -> runServlet("platform", false);
+                case "virtual" -> runServlet("virtual", true);
+                case "reactive" -> runReactive();
+                default -> throw new IllegalArgumentException("Unknown load mode: " + mode);
+            });
+        }
+        System.out.printf("%n%-10s %8s %12s %10s %10s %8s%n", "mode", "clients", "requests/s", "p50 ms", "p99 ms", "errors");
+        results.forEach(System.out::println);
+    }
+
+    private static List<String> runServlet(String mode, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class, TestConfig.class)
+                .profiles("test")
+                // аргументы командной строки, чтобы перекрыть application-test.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.cloud.config.enabled=false",
+                        "--spring.cache.type=none",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--users.email-filter.enabled=false",
+                        "--spring.datasource.url=" + System.getProperty("load.url", "jdbc:h2:mem:load-" + mode),
+                        "--spring.datasource.username=" + System.getProperty("load.username", "sa"),
+                        "--spring.datasource.password=" + System.getProperty("load.password", ""),
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--users.db-gate.enabled=" + virtualThreads)) {
+            return measure(mode, context, seed(context));
+        }
+    }
+
+    private static List<String> runReactive() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveUserServiceApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .profiles("test", ReactiveUserServiceApplication.PROFILE)
+                .run(
+                        "--server.port=0",
+                        "--spring.cloud.config.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--users.outbox.relay.enabled=false",
+                        "--spring.r2dbc.url=" + System.getProperty("load.r2dbc-url",
+                                "r2dbc:h2:mem:///load-reactive;DB_CLOSE_DELAY=-1"),
+                        "--spring.r2dbc.username=" + System.getProperty("load.username", "sa"),
+                        "--spring.r2dbc.password=" + System.getProperty("load.password", ""),
+                        "--spring.sql.init.mode=" + (System.getProperty("load.r2dbc-url") == null ? "always" : "never"),
+                        "--spring.sql.init.schema-locations=classpath:reactive-schema.sql")) {
+            return measure("reactive", context, seedReactive(context));
+        }
+    }
+
+    private static List<String> measure(String mode, ConfigurableApplicationContext context, long[] ids)
+            throws Exception {
+        int port = Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+        List<String> results = new ArrayList<>(CONCURRENCY.length);
+        for (int concurrency : CONCURRENCY) {
+            drive(port, ids, concurrency, WARMUP);
+            Result result = drive(port, ids, concurrency, DURATION);
+            Arrays.sort(result.latencies);
+            results.add(String.format("%-10s %8d %12.0f %10.2f %10.2f %8d", mode, concurrency,
+                    result.latencies.length / (DURATION.toNanos() / 1e9),
+                    percentile(result.latencies, 0.50), percentile(result.latencies, 0.99), result.errors));
+        }
+        return results;
+    }
+
+    private static long[] seed(ConfigurableApplicationContext context) {
+        UserBatchService userBatchService = context.getBean(UserBatchService.class);
+        String run = Long.toString(System.nanoTime(), 36);
+        for (int from = 0; from < USERS; from += UserBatchService.MAX_BATCH_SIZE) {
+            List<CreateUserRequest> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + UserBatchService.MAX_BATCH_SIZE, USERS); i++) {
+                batch.add(new CreateUserRequest("Load " + i, "load" + i + "." + run + "@example.com", 20 + i % 50));
+            }
+            userBatchService.createUsers(batch);
+        }
+        return context.getBean(UserService.class).getUsersAfter(0L, USERS).stream().mapToLong(UserDTO::id).toArray();
+    }
+
+    private static long[] seedReactive(ConfigurableApplicationContext context) {
+        ReactiveUserService userService = context.getBean(ReactiveUserService.class);
+        String run = Long.toString(System.nanoTime(), 36);
+        List<Long> ids = Flux.range(0, USERS)
+                .flatMap(i -> userService.createUser(
+                        new CreateUserRequest("Load " + i, "load" + i + "." + run + "@example.com", 20 + i % 50)), 64)
+                .map(UserDTO::id)
+                .collectList()
+                .block();
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static Result drive(int port, long[] ids, int concurrency, Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).build()) {
+            List<Future<Result>> futures = new ArrayList<>(concurrency);
+            for (int c = 0; c < concurrency; c++) {
+                futures.add(clients.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    int errors = 0;
+                    while (System.nanoTime() < deadline) {
+                        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+                        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/" + id))
+                                .header("Accept", "application/json")
+                                .build();
+                        long start = System.nanoTime();
+                        try {
+                            int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                            if (status != 200) {
+                                errors++;
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors++;
+                            continue;
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return new Result(Arrays.copyOf(latencies, count), errors);
+                }));
+            }
+            List<long[]> all = new ArrayList<>(concurrency);
+            int errors = 0;
+            int total = 0;
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                all.add(result.latencies);
+                errors += result.errors;
+                total += result.latencies.length;
+            }
+            long[] merged = new long[total];
+            int offset = 0;
+            for (long[] latencies : all) {
+                System.arraycopy(latencies, 0, merged, offset, latencies.length);
+                offset += latencies.length;
+            }
+            return new Result(merged, errors);
+        }
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1)] / 1e6;
+    }
+
+    private record Result(long[] latencies, int errors) {
+    }
+}
@@ -0,0 +1,134 @@
+package dev.dmv04.userservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.dmv04.userservice.dto.UserDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает HAL JSON, CBOR и Smile на ответах API пользователей: одном пользователе
+ * и странице из 1000 пользователей со ссылками. Перед запуском main печатает размер
+ * каждого ответа в байтах.
+ * Запуск: mvn test-compile, затем main из IDE или java -cp с тестовым classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCodecBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"1", "1000"})
+    private int users;
+
+    private ObjectMapper mapper;
+    private Object payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = halMapper(format);
+        payload = payload(users);
+        encoded = mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return mapper.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return mapper.readTree(encoded);
+    }
+
+    static ObjectMapper halMapper(String format) {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        ObjectMapper mapper = new ObjectMapper(factory)
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .registerModule(new Jackson2HalModule());
+        mapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+        return mapper;
+    }
+
+    /**
+     * Ответ в том виде, в каком его строит UserController: один пользователь или страница со ссылками.
+     */
+    static Object payload(int users) {
+        String base = "http://user-service:8080/api/users";
+        if (users == 1) {
+            return item(base, 1);
+        }
+        List<EntityModel<UserDTO>> items = new ArrayList<>(users);
+        for (long id = 1; id <= users; id++) {
+            items.add(item(base, id));
+        }
+        return CollectionModel.of(items,
+                Link.of(base + "?limit=" + users).withSelfRel(),
+                Link.of(base + "?after=" + users + "&limit=" + users).withRel("next"),
+                Link.of(base).withRel("create-user"));
+    }
+
+    private static EntityModel<UserDTO> item(String base, long id) {
+        UserDTO dto = new UserDTO(id, "Пользователь " + id, "user" + id + "@example.com",
+                20 + (int) (id % 50), LocalDateTime.of(2024, 1, 15, 10, 30).plusMinutes(id));
+        return EntityModel.of(dto,
+                Link.of(base + "/" + id).withSelfRel(),
+                Link.of(base + "/" + id).withRel("update"),
+                Link.of(base + "/" + id).withRel("delete"));
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        for (int users : new int[]{1, 1000}) {
+            Object payload = payload(users);
+            for (String format : new String[]{"json", "cbor", "smile"}) {
+                System.out.printf("users=%d format=%s size=%d bytes%n",
+                        users, format, halMapper(format).writeValueAsBytes(payload).length);
+            }
+        }
+        new Runner(new OptionsBuilder()
+                .include(UserCodecBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,87 @@
+package dev.dmv04.userservice.benchmark;
+
+import dev.dmv04.userservice.controller.UserController;
+import dev.dmv04.userservice.controller.UserLinks;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Сравнивает построение ссылок для страницы пользователей через linkTo(methodOn(...))
+ * и через {@link UserLinks}. Один вызов бенчмарка соответствует одному запросу списка.
+ * Запуск: mvn test-compile, затем main из IDE или java -cp с тестовым classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserLinksBenchmark {
+
+    @Param({"1", "1000"})
+    private int users;
+
+    private final UserLinks userLinks = new UserLinks();
+
+    @TearDown
+    public void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public void methodOnLinks(Blackhole blackhole) {
+        RequestContextHolder.setRequestAttributes(newRequest());
+        for (long id = 1; id <= users; id++) {
+            blackhole.consume(linkTo(methodOn(UserController.class).getUserById(id, null, null, null, null, null)).withSelfRel().expand());
+            blackhole.consume(linkTo(methodOn(UserController.class).updateUser(id, null, null, null)).withRel("update"));
+            blackhole.consume(linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete"));
+        }
+        blackhole.consume(linkTo(methodOn(UserController.class).getAllUsers(null, 50, null, null, null)).withSelfRel().expand());
+        blackhole.consume(linkTo(methodOn(UserController.class).getAllUsers(50L, 50, null, null, null)).withRel(IanaLinkRelations.NEXT).expand());
+    }
+
+    @Benchmark
+    public void userLinks(Blackhole blackhole) {
+        RequestContextHolder.setRequestAttributes(newRequest());
+        for (long id = 1; id <= users; id++) {
+            blackhole.consume(userLinks.self(id));
+            blackhole.consume(userLinks.update(id));
+            blackhole.consume(userLinks.delete(id));
+        }
+        blackhole.consume(userLinks.page(null, 50, IanaLinkRelations.SELF));
+        blackhole.consume(userLinks.page(50L, 50, IanaLinkRelations.NEXT));
+    }
+
+    private static ServletRequestAttributes newRequest() {
+        return new ServletRequestAttributes(new MockHttpServletRequest("GET", "/api/users"));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserLinksBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,135 @@
+package dev.dmv04.userservice.benchmark;
+
+import dev.dmv04.userservice.Application;
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.entity.User;
+import dev.dmv04.userservice.repository.UserRepository;
+import dev.dmv04.userservice.service.UserBatchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает чтение пользователей через сущность User с копированием в UserDTO (как до перехода
+ * на проекции) и через конструкторные проекции UserRepository: одного пользователя по ID и всей
+ * таблицы из rows строк. Оба варианта выполняются в read-only транзакции, как в UserService.
+ * Запускается с GC-профайлером: gc.alloc.rate.norm — байты, выделенные на одну операцию.
+ * Запуск: mvn test-compile, затем main из IDE или java -cp с тестовым classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserReadBenchmark {
+
+    @Param({"10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private TransactionTemplate readOnly;
+    private long[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(Application.class, TestConfig.class)
+                .profiles("test")
+                // аргументы командной строки, чтобы перекрыть application-test.yml
+                .run(
+                        "--server.port=0",
+                        "--spring.cloud.config.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--users.email-filter.enabled=false",
+                        "--users.outbox.relay.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:read-benchmark");
+        userRepository = context.getBean(UserRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        UserBatchService userBatchService = context.getBean(UserBatchService.class);
+        for (int from = 0; from < rows; from += UserBatchService.MAX_BATCH_SIZE) {
+            List<CreateUserRequest> batch = new ArrayList<>();
+            for (int i = from; i < Math.min(from + UserBatchService.MAX_BATCH_SIZE, rows); i++) {
+                batch.add(new CreateUserRequest("Read " + i, "read" + i + "@example.com", 20 + i % 50));
+            }
+            userBatchService.createUsers(batch);
+        }
+        ids = userRepository.findAllDtos().stream().mapToLong(UserDTO::id).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDTO singleEntity() {
+        long id = nextId();
+        return readOnly.execute(status -> userRepository.findById(id).map(UserReadBenchmark::toDto).orElseThrow());
+    }
+
+    @Benchmark
+    public UserDTO singleProjection() {
+        long id = nextId();
+        return readOnly.execute(status -> userRepository.findDtoById(id).orElseThrow());
+    }
+
+    @Benchmark
+    public List<UserDTO> allEntities() {
+        return readOnly.execute(status -> userRepository.findAll(Sort.by("id")).stream()
+                .map(UserReadBenchmark::toDto)
+                .toList());
+    }
+
+    @Benchmark
+    public List<UserDTO> allProjections() {
+        return readOnly.execute(status -> userRepository.findAllDtos());
+    }
+
+    private long nextId() {
+        long id = ids[next];
+        next = (next + 1) % ids.length;
+        return id;
+    }
+
+    private static UserDTO toDto(User user) {
+        return new UserDTO(user.getId(), user.getName(), user.getEmail(), user.getAge(), user.getCreatedAt(),
+                user.getVersion());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(UserReadBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
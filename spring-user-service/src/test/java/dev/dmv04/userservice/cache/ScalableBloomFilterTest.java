@@ -0,0 +1,52 @@
+package dev.dmv04.userservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void mightContain_shouldNeverMissAddedValuesWhileGrowing() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 1 << 20);
+
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("user" + i + "@test.com");
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(filter.mightContain("user" + i + "@test.com")).isTrue();
+        }
+        assertThat(filter.size()).isEqualTo(20_000);
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearConfiguredRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 1 << 20);
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("user" + i + "@test.com");
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent" + i + "@test.com")) {
+                falsePositives++;
+            }
+        }
+
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isLessThan(0.02);
+    }
+
+    @Test
+    void add_shouldStopGrowingAtMemoryLimit() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01, 4096);
+
+        for (int i = 0; i < 20_000; i++) {
+            filter.add("user" + i + "@test.com");
+        }
+
+        assertThat(filter.sizeInBytes()).isLessThanOrEqualTo(4096);
+        assertThat(filter.mightContain("user19999@test.com")).isTrue();
+    }
+}
@@ -0,0 +1,192 @@
+package dev.dmv04.userservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dmv04.userservice.cache.UsersGeneration;
+import dev.dmv04.userservice.datasource.DbGateDataSource;
+import dev.dmv04.userservice.datasource.ReadYourWritesFilter;
+import dev.dmv04.userservice.datasource.ReplicaPool;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.relay.enabled=false",
+        "users.page-cache.enabled=false",
+        "users.replicas.enabled=true",
+        "users.replicas.max-lag=1s",
+        "users.replicas.lag-check-interval=100ms",
+        "users.replicas.datasources[0].name=replica1",
+        "users.replicas.datasources[0].url=jdbc:h2:mem:replica1;DB_CLOSE_DELAY=-1",
+        "users.replicas.datasources[0].username=sa",
+        "users.replicas.datasources[0].lag-query=SELECT 0",
+        "users.replicas.datasources[1].name=replica2",
+        "users.replicas.datasources[1].url=jdbc:h2:mem:replica2;DB_CLOSE_DELAY=-1",
+        "users.replicas.datasources[1].username=sa",
+        "users.replicas.datasources[1].lag-query=SELECT 3600",
+        "users.db-gate.enabled=true"
+})
+class ReplicaRoutingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    @Autowired
+    private UsersGeneration usersGeneration;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    static void createReplicas() throws SQLException {
+        createReplica("replica1");
+        createReplica("replica2");
+    }
+
+    private static void createReplica(String name) throws SQLException {
+        execute(name, "CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, name VARCHAR(255), "
+                + "email VARCHAR(255), age INT, created_at TIMESTAMP, version BIGINT DEFAULT 0)");
+        execute(name, "MERGE INTO users KEY (id) VALUES (1, 'Replica', '" + name + "@example.com', 30, "
+                + "CURRENT_TIMESTAMP, 0)");
+    }
+
+    private static void execute(String replica, String sql) throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + replica + ";DB_CLOSE_DELAY=-1", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Test
+    void readOnlyTransactions_shouldUseHealthyReplicaAndPrimaryAfterWrite() {
+        replicaPool.checkLag();
+        awaitConsistencyWindow();
+
+        assertThat(userService.getAllUsers())
+                .extracting(UserDTO::email)
+                .containsExactly("replica1@example.com");
+        assertThat(meterRegistry.get("users.replicas.healthy").tag("replica", "replica2").gauge().value())
+                .isZero();
+
+        UserDTO created = userService.createUser(new CreateUserRequest("Primary", "primary@example.com", 25));
+
+        assertThat(userService.getAllUsers())
+                .extracting(UserDTO::email)
+                .contains(created.email())
+                .doesNotContain("replica1@example.com", "replica2@example.com");
+
+        awaitConsistencyWindow();
+        assertThat(userService.getAllUsers())
+                .extracting(UserDTO::email)
+                .containsExactly("replica1@example.com");
+    }
+
+    @Test
+    void dbGate_shouldLimitOnlyPrimaryConnections() {
+        assertThat(primaryDataSource).isInstanceOf(DbGateDataSource.class);
+        assertThat(dataSource).isInstanceOf(LazyConnectionDataSourceProxy.class);
+        replicaPool.checkLag();
+        awaitConsistencyWindow();
+        Timer gateWaits = meterRegistry.get("users.db-gate.wait").timer();
+
+        long before = gateWaits.count();
+        assertThat(userService.getAllUsers()).extracting(UserDTO::email).containsExactly("replica1@example.com");
+        assertThat(gateWaits.count()).isEqualTo(before);
+
+        userService.createUser(new CreateUserRequest("Gated", "gated@example.com", 25));
+        assertThat(gateWaits.count()).isGreaterThan(before);
+        assertThat(meterRegistry.get("users.db-gate.in-use").gauge().value()).isZero();
+    }
+
+    private void awaitConsistencyWindow() {
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> usersGeneration.nanosSinceLastChange() > replicaPool.stalenessBound().toNanos());
+    }
+
+    @Test
+    void requests_shouldReadPrimaryOnlyForClientWithRecentWrite() throws Exception {
+        replicaPool.checkLag();
+        MockHttpServletResponse created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new CreateUserRequest("Writer", "writer@example.com", 30))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse();
+        String lastWrite = created.getHeader(ReadYourWritesFilter.HEADER);
+        assertThat(lastWrite).isNotNull();
+        assertThat(created.getCookie(ReadYourWritesFilter.COOKIE)).isNotNull()
+                .extracting(Cookie::getValue).isEqualTo(lastWrite);
+        long id = objectMapper.readTree(created.getContentAsString()).get("id").asLong();
+        // реплика ещё не получила новую строку: под этим ID у неё старые данные
+        execute("replica1", "MERGE INTO users KEY (id) VALUES (" + id + ", 'Stale', 'stale@example.com', 30, "
+                + "CURRENT_TIMESTAMP, 0)");
+        try {
+            // другие клиенты сразу читают реплику, но такую строку не кэшируют
+            mockMvc.perform(get("/api/users/{id}", id))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.email").value("stale@example.com"));
+
+            // клиент с меткой последней записи видит свою запись
+            mockMvc.perform(get("/api/users/{id}", id).header(ReadYourWritesFilter.HEADER, lastWrite))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.email").value("writer@example.com"));
+            mockMvc.perform(get("/api/users").cookie(new Cookie(ReadYourWritesFilter.COOKIE, lastWrite)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$._embedded.userDTOList[*].email").value(hasItem("writer@example.com")));
+        } finally {
+            execute("replica1", "DELETE FROM users WHERE id = " + id);
+            createReplica("replica1");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.dmv04.userservice.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardingPropertiesTest {
+
+    @Test
+    void nodeId_shouldBeRequired() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of("users.sharding.virtual-nodes", "160")));
+
+        assertThatThrownBy(() -> binder.bindOrCreate("users.sharding", ShardingProperties.class))
+                .isInstanceOf(BindException.class)
+                .rootCause().hasMessageContaining("users.sharding.node-id");
+    }
+
+    @Test
+    void nodeId_shouldBeBound() {
+        Binder binder = new Binder(new MapConfigurationPropertySource(Map.of("users.sharding.node-id", "7")));
+
+        assertThat(binder.bindOrCreate("users.sharding", ShardingProperties.class).nodeId()).isEqualTo(7);
+    }
+}
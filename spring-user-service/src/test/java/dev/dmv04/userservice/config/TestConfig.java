@@ -5,7 +5,11 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 @TestConfiguration
 public class TestConfig {
@@ -13,6 +17,8 @@ public class TestConfig {
     @Bean
     @Primary
     public UserEventProducer userEventProducer() {
-        return mock(UserEventProducer.class);
+        UserEventProducer producer = mock(UserEventProducer.class);
+        when(producer.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+        return producer;
     }
 }
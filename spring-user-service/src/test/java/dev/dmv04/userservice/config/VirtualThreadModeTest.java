@@ -0,0 +1,67 @@
+package dev.dmv04.userservice.config;
+
+import dev.dmv04.userservice.datasource.DbGateDataSource;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.search.Search;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.relay.enabled=false",
+        "spring.threads.virtual.enabled=true",
+        "users.db-gate.enabled=true",
+        "users.pinning-monitor.threshold=5ms"
+})
+class VirtualThreadModeTest {
+
+    private static final Object LOCK = new Object();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void virtualThreadMode_shouldGateDataSourceAndReportPinnedThreads() throws InterruptedException {
+        assertThat(dataSource).isInstanceOf(DbGateDataSource.class);
+        UserDTO created = userService.createUser(new CreateUserRequest("Virtual", "virtual@example.com", 30));
+        assertThat(userService.getUserById(created.id()).email()).isEqualTo("virtual@example.com");
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (LOCK) {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        await().atMost(Duration.ofSeconds(15)).untilAsserted(() ->
+                assertThat(Search.in(meterRegistry).name("users.virtual-threads.pinned").tag("source", "application")
+                        .timer())
+                        .isNotNull()
+                        .satisfies(timer -> assertThat(timer.count()).isPositive()));
+    }
+}
@@ -2,9 +2,15 @@ package dev.dmv04.userservice.controller;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import dev.dmv04.userservice.cache.EmailFilter;
+import dev.dmv04.userservice.cache.UserPageCache;
 import dev.dmv04.userservice.config.TestConfig;
 import dev.dmv04.userservice.dto.CreateUserRequest;
 import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserBulkDeleteRequest;
+import dev.dmv04.userservice.entity.User;
 import dev.dmv04.userservice.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,15 +18,28 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -29,7 +48,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ActiveProfiles("test")
 @Import(TestConfig.class)
 @TestPropertySource(properties = {
-        "spring.cloud.config.enabled=false"
+        "spring.cloud.config.enabled=false",
+        "users.bulk-delete.chunk-size=2"
 })
 class UserControllerIntegrationTest {
 
@@ -42,6 +62,15 @@ class UserControllerIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserPageCache userPageCache;
+
+    @Autowired
+    private EmailFilter emailFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @BeforeEach
     void cleanDatabase() {
         userRepository.deleteAll();
@@ -81,7 +110,54 @@ class UserControllerIntegrationTest {
         mockMvc.perform(post("/api/users")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(request2)))
-                .andExpect(status().isConflict());
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Email 'alice@test.com' already exists"));
+
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createUser_withGeneratedConstraintName_shouldReturn409WhenEmailExists() throws Exception {
+        // схема, созданная Hibernate без явного имени, называет ограничение UK...
+        replaceEmailConstraint(User.EMAIL_CONSTRAINT, "uk6dotkott2kjsp8vw4d0m25fb7");
+        try {
+            mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateUserRequest("Alice", "alice@test.com", 30))))
+                    .andExpect(status().isCreated());
+
+            mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new CreateUserRequest("Bob", "alice@test.com", 25))))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.message").value("Email 'alice@test.com' already exists"));
+        } finally {
+            replaceEmailConstraint("uk6dotkott2kjsp8vw4d0m25fb7", User.EMAIL_CONSTRAINT);
+        }
+    }
+
+    private void replaceEmailConstraint(String from, String to) {
+        // индекс H2 сохраняет старое имя при RENAME CONSTRAINT, поэтому ограничение пересоздаётся
+        jdbcTemplate.execute("ALTER TABLE users DROP CONSTRAINT " + from);
+        jdbcTemplate.execute("ALTER TABLE users ADD CONSTRAINT " + to + " UNIQUE (email)");
+    }
+
+    @Test
+    void createUser_shouldNotReportIdCollisionAsTakenEmail() throws Exception {
+        String created = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Alice", "alice@test.com", 30))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        long nextId = objectMapper.readTree(created).get("id").asLong() + 1;
+        // строка, вставленная в обход последовательности, занимает следующий выдаваемый ID
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, created_at, version) VALUES (?, ?, ?, ?, ?, 0)",
+                nextId, "Legacy", "legacy@test.com", 40, LocalDateTime.now());
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Bob", "bob@test.com", 25))))
+                .andExpect(status().isInternalServerError());
     }
 
     @Test
@@ -201,4 +277,633 @@ class UserControllerIntegrationTest {
                 .andExpect(jsonPath("$._links.delete.href").exists())
                 .andExpect(jsonPath("$._links.all-users.href").exists());
     }
+
+    @Test
+    void getAllUsers_withLimit_shouldReturnPageAndNextLink() throws Exception {
+        Long[] ids = new Long[3];
+        for (int i = 0; i < 3; i++) {
+            CreateUserRequest request = new CreateUserRequest("User" + i, "page" + i + "@test.com", 20 + i);
+            var createResult = mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids[i] = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        }
+
+        mockMvc.perform(get("/api/users").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList.length()").value(2))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].id").value(ids[0].intValue()))
+                .andExpect(jsonPath("$._embedded.userDTOList[1].id").value(ids[1].intValue()))
+                .andExpect(jsonPath("$._links.next.href").value("http://localhost/api/users?after=" + ids[1] + "&limit=2"));
+
+        mockMvc.perform(get("/api/users").param("after", ids[1].toString()).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList.length()").value(1))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].id").value(ids[2].intValue()))
+                .andExpect(jsonPath("$._links.self.href").exists())
+                .andExpect(jsonPath("$._links.next").doesNotExist());
+    }
+
+    @Test
+    void exportUsers_shouldStreamNdjsonAndCsv() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Alice", "alice@test.com", 30))))
+                .andExpect(status().isCreated());
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Smith, Bob", "bob@test.com", 41))))
+                .andExpect(status().isCreated());
+
+        String ndjson = mockMvc.perform(get("/api/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = ndjson.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("email").asText()).isEqualTo("alice@test.com");
+        assertThat(objectMapper.readTree(lines[1]).get("name").asText()).isEqualTo("Smith, Bob");
+        assertThat(objectMapper.readTree(lines[1]).get("age").asInt()).isEqualTo(41);
+
+        String csv = mockMvc.perform(get("/api/users/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] rows = csv.split("\n");
+        assertThat(rows).hasSize(3);
+        assertThat(rows[0]).isEqualTo("id,name,email,age,createdAt");
+        assertThat(csv).contains(",\"Smith, Bob\",bob@test.com,41,");
+
+        mockMvc.perform(get("/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserById_shouldNotReturnStaleDataAfterUpdateAndDelete() throws Exception {
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Cached", "cached@test.com", 20))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        Long userId = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/api/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Cached"));
+
+        mockMvc.perform(put("/api/users/" + userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest("Renamed", null, null))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/users/" + userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed"));
+
+        mockMvc.perform(delete("/api/users/" + userId))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/" + userId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAllUsers_shouldServeRepeatedReadsFromPageCacheUntilUsersChange() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("First", "first@test.com", 20))))
+                .andExpect(status().isCreated());
+
+        String firstBody = mockMvc.perform(get("/api/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long hitsBefore = userPageCache.stats().hitCount();
+
+        mockMvc.perform(get("/api/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/hal+json"))
+                .andExpect(content().string(firstBody));
+        assertThat(userPageCache.stats().hitCount()).isEqualTo(hitsBefore + 1);
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Second", "second@test.com", 21))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList.length()").value(2));
+    }
+
+    @Test
+    void getAllUsers_withoutPaging_shouldBypassPageCache() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Whole", "whole@test.com", 20))))
+                .andExpect(status().isCreated());
+        long requestsBefore = userPageCache.stats().requestCount();
+        long bytesBefore = userPageCache.weightedSize();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/users"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$._embedded.userDTOList.length()").value(1));
+        }
+
+        assertThat(userPageCache.stats().requestCount()).isEqualTo(requestsBefore);
+        assertThat(userPageCache.weightedSize()).isEqualTo(bytesBefore);
+    }
+
+    @Test
+    void getAllUsers_shouldNotServeCachedLinksOfAnotherHost() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Host", "host@test.com", 20))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/users").param("limit", "10").header(HttpHeaders.HOST, "first.example"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href").value(startsWith("http://first.example/")));
+
+        mockMvc.perform(get("/api/users").param("limit", "10").header(HttpHeaders.HOST, "second.example"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href").value(startsWith("http://second.example/")));
+    }
+
+    @Test
+    void getUsersByIds_shouldPreserveRequestOrderAndReportMissingIds() throws Exception {
+        Long[] ids = new Long[2];
+        for (int i = 0; i < 2; i++) {
+            var createResult = mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new CreateUserRequest("Lookup" + i, "lookup" + i + "@test.com", 30 + i))))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids[i] = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+        }
+        long missingId = ids[1] + 1000;
+
+        mockMvc.perform(get("/api/users").param("ids", ids[1] + "," + missingId + "," + ids[0]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList.length()").value(2))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].id").value(ids[1].intValue()))
+                .andExpect(jsonPath("$._embedded.userDTOList[1].id").value(ids[0].intValue()))
+                .andExpect(jsonPath("$._embedded.userDTOList[0]._links.self.href").exists())
+                .andExpect(jsonPath("$.missingIds.length()").value(1))
+                .andExpect(jsonPath("$.missingIds[0]").value((int) missingId))
+                .andExpect(jsonPath("$._links.all-users.href").exists());
+
+        mockMvc.perform(post("/api/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": [" + ids[0] + ", " + ids[1] + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList[0].id").value(ids[0].intValue()))
+                .andExpect(jsonPath("$._embedded.userDTOList[1].id").value(ids[1].intValue()))
+                .andExpect(jsonPath("$.missingIds").isEmpty());
+
+        mockMvc.perform(get("/api/users").param("ids", "1,abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllUsers_withFieldsAndLinksFalse_shouldReturnSparseUsersWithoutLinks() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new CreateUserRequest("Sparse" + i, "sparse" + i + "@test.com", 20 + i))))
+                    .andExpect(status().isCreated());
+        }
+
+        mockMvc.perform(get("/api/users").param("fields", "email").param("links", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList.length()").value(2))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].id").exists())
+                .andExpect(jsonPath("$._embedded.userDTOList[0].email").value("sparse0@test.com"))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].name").doesNotExist())
+                .andExpect(jsonPath("$._embedded.userDTOList[0].createdAt").doesNotExist())
+                .andExpect(jsonPath("$._embedded.userDTOList[0]._links").doesNotExist())
+                .andExpect(jsonPath("$._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users").param("limit", "1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList[0].name").value("Sparse0"))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].age").doesNotExist())
+                .andExpect(jsonPath("$._embedded.userDTOList[0]._links.self.href").exists())
+                .andExpect(jsonPath("$._links.next.href").value(endsWith("&fields=id,name")));
+
+        mockMvc.perform(get("/api/users").param("fields", "password"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUserById_withFields_shouldReturnOnlyRequestedFields() throws Exception {
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Narrow", "narrow@test.com", 33))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/api/users/{id}", id).param("fields", "age").param("links", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value((int) id))
+                .andExpect(jsonPath("$.age").value(33))
+                .andExpect(jsonPath("$.email").doesNotExist())
+                .andExpect(jsonPath("$._links").doesNotExist());
+
+        mockMvc.perform(get("/api/users").param("ids", String.valueOf(id)).param("fields", "email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDTOList[0].email").value("narrow@test.com"))
+                .andExpect(jsonPath("$._embedded.userDTOList[0].name").doesNotExist());
+    }
+
+    @Test
+    void getUserById_withMatchingIfNoneMatch_shouldReturn304() throws Exception {
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Etag", "etag@test.com", 40))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+
+        mockMvc.perform(get("/api/users/{id}", id).header("If-None-Match", "\"0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/users/{id}", id).param("fields", "email").header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0;fields=id,email\""));
+
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest(null, null, 41))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(get("/api/users/{id}", id).header("If-None-Match", "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
+                .andExpect(jsonPath("$.age").value(41));
+    }
+
+    @Test
+    void updateUser_withStaleIfMatch_shouldReturn412() throws Exception {
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Match", "match@test.com", 40))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest("First", null, null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .header("If-Match", "\"0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest("Second", null, null))))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error").value("Precondition Failed"));
+
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .header("If-Match", "W/\"1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest("Weak", null, null))))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(userRepository.findById(id)).get()
+                .extracting(user -> user.getName())
+                .isEqualTo("First");
+    }
+
+    @Test
+    void binaryFormats_shouldUseSameHalShapeAsJson() throws Exception {
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        ObjectMapper cborMapper = objectMapper.copyWith(new CBORFactory());
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(smile)
+                        .accept(smile)
+                        .content(smileMapper.writeValueAsBytes(new CreateUserRequest("Binary", "binary@test.com", 35))))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(smile))
+                .andReturn();
+        JsonNode created = smileMapper.readTree(createResult.getResponse().getContentAsByteArray());
+        long id = created.get("id").asLong();
+        assertThat(created.get("email").asText()).isEqualTo("binary@test.com");
+        assertThat(created.at("/_links/self/href").asText()).endsWith("/api/users/" + id);
+
+        var getResult = mockMvc.perform(get("/api/users").accept(MediaType.parseMediaType("application/cbor")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn();
+        JsonNode users = cborMapper.readTree(getResult.getResponse().getContentAsByteArray());
+        assertThat(users.at("/_embedded/userDTOList/0/name").asText()).isEqualTo("Binary");
+        assertThat(users.at("/_embedded/userDTOList/0/createdAt").isTextual()).isTrue();
+        assertThat(users.at("/_links/create-user/href").isMissingNode()).isFalse();
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON));
+    }
+
+    @Test
+    void binaryFormats_shouldHaveOwnEtagsAndVaryByAccept() throws Exception {
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(cbor)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Vary", "vary@test.com", 35))))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("ETag", "\"0;format=cbor\""))
+                .andReturn();
+        long id = objectMapper.copyWith(new CBORFactory())
+                .readTree(createResult.getResponse().getContentAsByteArray()).get("id").asLong();
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        // JSON-версия не подтверждает CBOR-тело и наоборот
+        mockMvc.perform(get("/api/users/{id}", id).accept(cbor).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(cbor))
+                .andExpect(header().string("ETag", "\"0;format=cbor\""));
+        mockMvc.perform(get("/api/users/{id}", id).accept(cbor).header(HttpHeaders.IF_NONE_MATCH, "\"0;format=cbor\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/api/users/{id}", id)
+                        .header(HttpHeaders.ACCEPT, "application/cbor;q=0.5, application/hal+json")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/api/users").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+
+        // ETag бинарного представления годится для If-Match
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.IF_MATCH, "\"0;format=cbor\"")
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest("Varied", null, null))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+
+    @Test
+    void createUsers_shouldCreateValidUsersAndReportRejectedOnes() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Taken", "taken@test.com", 30))))
+                .andExpect(status().isCreated());
+
+        List<CreateUserRequest> batch = List.of(
+                new CreateUserRequest("Batch0", "batch0@test.com", 20),
+                new CreateUserRequest("Taken", "taken@test.com", 30),
+                new CreateUserRequest("", "not-an-email", 0),
+                new CreateUserRequest("Batch0 again", "batch0@test.com", 21),
+                new CreateUserRequest("Batch1", "batch1@test.com", 22)
+        );
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.failed").value(3))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[0].id").exists())
+                .andExpect(jsonPath("$.results[1].status").value(409))
+                .andExpect(jsonPath("$.results[1].message").value("Email 'taken@test.com' already exists"))
+                .andExpect(jsonPath("$.results[2].status").value(400))
+                .andExpect(jsonPath("$.results[2].details.length()").value(3))
+                .andExpect(jsonPath("$.results[3].status").value(409))
+                .andExpect(jsonPath("$.results[4].status").value(201))
+                .andExpect(jsonPath("$.results[4].index").value(4));
+
+        assertThat(userRepository.count()).isEqualTo(3);
+        assertThat(userRepository.findExistingEmails(List.of("batch0@test.com", "batch1@test.com", "missing@test.com")))
+                .containsExactlyInAnyOrder("batch0@test.com", "batch1@test.com");
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void createUsers_withoutAge_shouldRejectOnlyThatItem() throws Exception {
+        String batch = """
+                [{"name":"Aged","email":"aged@test.com","age":20},
+                 {"name":"Ageless","email":"ageless@test.com"}]
+                """;
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].status").value(400))
+                .andExpect(jsonPath("$.results[1].details[0].field").value("age"));
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Ageless\",\"email\":\"ageless@test.com\"}"))
+                .andExpect(status().isBadRequest());
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void createUsers_withLoadedEmailFilter_shouldStillDetectTakenEmails() throws Exception {
+        emailFilter.rebuild();
+        assertThat(emailFilter.isLoaded()).isTrue();
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Taken", "filtered@test.com", 30))))
+                .andExpect(status().isCreated());
+        assertThat(emailFilter.mightContain("filtered@test.com")).isTrue();
+
+        List<CreateUserRequest> batch = List.of(
+                new CreateUserRequest("Taken", "filtered@test.com", 30),
+                new CreateUserRequest("Fresh", "fresh-filtered@test.com", 20)
+        );
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value(409))
+                .andExpect(jsonPath("$.results[1].status").value(201));
+
+        assertThat(emailFilter.mightContain("fresh-filtered@test.com")).isTrue();
+    }
+
+    @Test
+    void createUsers_withStaleEmailFilter_shouldReportTakenEmailPerItem() throws Exception {
+        emailFilter.rebuild();
+        // запись мимо фильтра, как от другой реплики, событие которой ещё не пришло
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, created_at, version) VALUES (?, ?, ?, ?, ?, 0)",
+                -1L, "Elsewhere", "elsewhere@test.com", 30, LocalDateTime.now());
+        assertThat(emailFilter.mightContain("elsewhere@test.com")).isFalse();
+
+        List<CreateUserRequest> batch = List.of(
+                new CreateUserRequest("Fresh", "fresh-stale@test.com", 20),
+                new CreateUserRequest("Elsewhere", "elsewhere@test.com", 30)
+        );
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].status").value(201))
+                .andExpect(jsonPath("$.results[1].status").value(409));
+
+        assertThat(userRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void deleteUsers_shouldDeleteInChunksAndReportMissingIds() throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var result = mockMvc.perform(post("/api/users")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(
+                                    new CreateUserRequest("Bulk" + i, "bulk" + i + "@test.com", 20 + i))))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            ids.add(objectMapper.readTree(result.getResponse().getContentAsString()).get("id").asLong());
+        }
+        mockMvc.perform(get("/api/users/{id}", ids.get(0)))
+                .andExpect(status().isOk());
+
+        long missingId = ids.get(2) + 1000;
+        mockMvc.perform(delete("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new UserBulkDeleteRequest(List.of(ids.get(0), missingId, ids.get(1), ids.get(0))))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted").value(2))
+                .andExpect(jsonPath("$.notFound.length()").value(1))
+                .andExpect(jsonPath("$.notFound[0]").value(missingId));
+
+        assertThat(userRepository.findAll())
+                .extracting(User::getId)
+                .containsExactly(ids.get(2));
+        mockMvc.perform(get("/api/users/{id}", ids.get(0)))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\": []}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void importUsers_shouldStreamCsvAndNdjsonSkippingInvalidAndTakenRows() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Taken", "taken@test.com", 30))))
+                .andExpect(status().isCreated());
+
+        String csv = """
+                email,name,age
+                import1@test.com,"Smith, ""JJ"" John",30
+                taken@test.com,Taken,30
+                import1@test.com,Again,31
+                bad,row
+                import2@test.com,Jane,abc
+                """;
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(5))
+                .andExpect(jsonPath("$.invalid").value(2))
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.skipped").value(2));
+
+        String ndjson = """
+                {"name":"Nd1","email":"nd1@test.com","age":20}
+                not json
+                {"name":"Nd2","email":"nd2@test.com","age":21}
+                """;
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("application/x-ndjson")
+                        .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.read").value(3))
+                .andExpect(jsonPath("$.invalid").value(1))
+                .andExpect(jsonPath("$.imported").value(2));
+
+        assertThat(userRepository.findAll())
+                .extracting(User::getEmail, User::getName)
+                .contains(
+                        tuple("import1@test.com", "Smith, \"JJ\" John"),
+                        tuple("nd2@test.com", "Nd2"))
+                .hasSize(4);
+
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content("mail,age\nx@test.com,20\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void updateUser_withUnchangedValues_shouldSkipWriteAndKeepVersion() throws Exception {
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Other", "other@test.com", 20))))
+                .andExpect(status().isCreated());
+        var createResult = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CreateUserRequest("Same", "same@test.com", 30))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = objectMapper.readTree(createResult.getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest(" Same ", "same@test.com", 30))))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"0\""))
+                .andExpect(jsonPath("$.name").value("Same"));
+
+        mockMvc.perform(put("/api/users/{id}", id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest(null, "other@test.com", null))))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Email 'other@test.com' already exists"));
+
+        mockMvc.perform(put("/api/users/{id}", id + 1000)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new UpdateUserRequest("Ghost", null, null))))
+                .andExpect(status().isNotFound());
+
+        assertThat(userRepository.findById(id)).get()
+                .extracting(user -> user.getVersion())
+                .isEqualTo(0L);
+    }
 }
@@ -0,0 +1,58 @@
+package dev.dmv04.userservice.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Ссылки сравниваются через toString: ссылки из methodOn дополнительно несут affordances,
+ * которые не попадают в HAL-ответ.
+ */
+class UserLinksTest {
+
+    private final UserLinks userLinks = new UserLinks();
+
+    @BeforeEach
+    void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setScheme("https");
+        request.setServerName("users.example.com");
+        request.setServerPort(8443);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void resetRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void itemLinks_shouldMatchMethodOnLinks() {
+        assertThat(userLinks.self(42L))
+                .hasToString(linkTo(methodOn(UserController.class).getUserById(42L, null, null, null, null, null)).withSelfRel().expand().toString());
+        assertThat(userLinks.update(42L))
+                .hasToString(linkTo(methodOn(UserController.class).updateUser(42L, null, null, null)).withRel("update").toString());
+        assertThat(userLinks.delete(42L))
+                .hasToString(linkTo(methodOn(UserController.class).deleteUser(42L)).withRel("delete").toString());
+    }
+
+    @Test
+    void collectionLinks_shouldMatchMethodOnLinks() {
+        assertThat(userLinks.allUsers())
+                .hasToString(linkTo(methodOn(UserController.class).getAllUsers(null, null, null, null, null)).withRel("all-users").expand().toString());
+        assertThat(userLinks.createUser())
+                .hasToString(linkTo(methodOn(UserController.class).createUser(null, null)).withRel("create-user").toString());
+        assertThat(userLinks.page(10L, 50, IanaLinkRelations.NEXT))
+                .hasToString(linkTo(methodOn(UserController.class).getAllUsers(10L, 50, null, null, null)).withRel(IanaLinkRelations.NEXT).expand().toString());
+        assertThat(userLinks.page(null, 50, IanaLinkRelations.SELF))
+                .hasToString(linkTo(methodOn(UserController.class).getAllUsers(null, 50, null, null, null)).withSelfRel().expand().toString());
+    }
+}
@@ -0,0 +1,87 @@
+package dev.dmv04.userservice.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DbGateDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DataSource target;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+    }
+
+    @Test
+    void getConnection_shouldWaitForPermitAndReleaseItOnceOnClose() throws SQLException {
+        DbGateDataSource gate = new DbGateDataSource(target, 1, Duration.ofMillis(50), 10, meterRegistry);
+
+        Connection first = gate.getConnection();
+        assertThatThrownBy(gate::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("Timed out");
+        assertThat(meterRegistry.get("users.db-gate.in-use").gauge().value()).isEqualTo(1);
+
+        first.close();
+        first.close();
+        Connection second = gate.getConnection();
+        assertThatThrownBy(gate::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        second.close();
+
+        verify(target, times(2)).getConnection();
+        assertThat(meterRegistry.get("users.db-gate.in-use").gauge().value()).isZero();
+        assertThat(meterRegistry.get("users.db-gate.rejected").tag("reason", "timeout").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void getConnection_shouldRejectImmediatelyWhenQueueIsFull() throws Exception {
+        DbGateDataSource gate = new DbGateDataSource(target, 1, Duration.ofSeconds(10), 1, meterRegistry);
+        Connection held = gate.getConnection();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                gate.getConnection().close();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (meterRegistry.get("users.db-gate.waiting").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(gate::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class)
+                .hasMessageContaining("queue is full");
+
+        held.close();
+        waiter.join();
+        assertThat(meterRegistry.get("users.db-gate.rejected").tag("reason", "queue-full").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_shouldReleasePermitWhenTargetFails() throws SQLException {
+        when(target.getConnection()).thenThrow(new SQLException("down"));
+        DbGateDataSource gate = new DbGateDataSource(target, 1, Duration.ofMillis(50), 10, meterRegistry);
+
+        assertThatThrownBy(gate::getConnection).hasMessage("down");
+        assertThatThrownBy(gate::getConnection).hasMessage("down");
+        assertThat(meterRegistry.get("users.db-gate.rejected").tag("reason", "timeout").counter().count()).isZero();
+    }
+}
@@ -0,0 +1,99 @@
+package dev.dmv04.userservice.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dev.dmv04.userservice.config.ReplicaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * {@link ReplicaProperties#POSTGRES_LAG_QUERY} на H2, где функции PostgreSQL заменены заглушками.
+ * Класс открыт, чтобы H2 мог вызывать заглушки.
+ */
+public class ReplicaPoolTest {
+
+    private static volatile String receiveLsn;
+    private static volatile String replayLsn;
+    private static volatile Instant lastReplay;
+
+    private HikariDataSource dataSource;
+    private ReplicaPool replicaPool;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:replica-" + UUID.randomUUID());
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String stubs = ReplicaPoolTest.class.getName();
+        jdbcTemplate.execute("CREATE ALIAS pg_is_in_recovery FOR '" + stubs + ".inRecovery'");
+        jdbcTemplate.execute("CREATE ALIAS pg_last_wal_receive_lsn FOR '" + stubs + ".receiveLsn'");
+        jdbcTemplate.execute("CREATE ALIAS pg_last_wal_replay_lsn FOR '" + stubs + ".replayLsn'");
+        jdbcTemplate.execute("CREATE ALIAS pg_last_xact_replay_timestamp FOR '" + stubs + ".lastReplay'");
+        replicaPool = new ReplicaPool(Map.of("replica", dataSource),
+                Map.of("replica", ReplicaProperties.POSTGRES_LAG_QUERY),
+                ReplicaPool.Selection.ROUND_ROBIN, Duration.ofSeconds(1), Duration.ofMillis(100),
+                meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        replicaPool.stop();
+    }
+
+    @Test
+    void idleReplica_shouldNotLagWhenAllReceivedWalIsReplayed() {
+        // ведущий узел час ничего не пишет: последняя применённая транзакция старая
+        lastReplay = Instant.now().minus(Duration.ofHours(1));
+        receiveLsn = "0/3000060";
+        replayLsn = "0/3000060";
+
+        replicaPool.checkLag();
+
+        assertThat(lagSeconds()).isZero();
+        assertThat(replicaPool.select()).isEqualTo("replica");
+    }
+
+    @Test
+    void replayingReplica_shouldLagByLastReplayedTransaction() {
+        lastReplay = Instant.now().minus(Duration.ofHours(1));
+        receiveLsn = "0/3000100";
+        replayLsn = "0/3000060";
+
+        replicaPool.checkLag();
+
+        assertThat(lagSeconds()).isCloseTo(3600, within(5.0));
+        assertThat(replicaPool.select()).isNull();
+    }
+
+    private double lagSeconds() {
+        return meterRegistry.get("users.replicas.lag").gauge().value();
+    }
+
+    public static boolean inRecovery() {
+        return true;
+    }
+
+    public static String receiveLsn() {
+        return receiveLsn;
+    }
+
+    public static String replayLsn() {
+        return replayLsn;
+    }
+
+    public static Timestamp lastReplay() {
+        return Timestamp.from(lastReplay);
+    }
+}
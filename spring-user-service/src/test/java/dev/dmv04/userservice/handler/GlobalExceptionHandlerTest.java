@@ -2,6 +2,10 @@ package dev.dmv04.userservice.handler;
 
 import dev.dmv04.userservice.dto.ValidationError;
 import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.exception.OperationNotSupportedException;
+import dev.dmv04.userservice.exception.PreconditionFailedException;
+import dev.dmv04.userservice.exception.ServiceOverloadedException;
 import dev.dmv04.userservice.exception.UserNotFoundException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -71,6 +75,65 @@ class GlobalExceptionHandlerTest {
         assertThat(response.getBody().details()).isEmpty();
     }
 
+    @Test
+    void handlePreconditionFailed_ShouldReturnPreconditionFailedStatus() {
+        PreconditionFailedException ex = new PreconditionFailedException(1L, 2L);
+        WebRequest request = mock(WebRequest.class);
+        when(request.getDescription(false)).thenReturn("uri=/api/users/1");
+
+        var response = globalExceptionHandler.handlePreconditionFailed(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(response.getBody().status()).isEqualTo(412);
+        assertThat(response.getBody().error()).isEqualTo("Precondition Failed");
+        assertThat(response.getBody().message()).isEqualTo("User with id 1 has been modified since version 2");
+        assertThat(response.getBody().path()).isEqualTo("/api/users/1");
+    }
+
+    @Test
+    void handleOperationNotSupported_ShouldReturnNotImplementedStatus() {
+        OperationNotSupportedException ex = new OperationNotSupportedException("User export", "while users are sharded");
+        WebRequest request = mock(WebRequest.class);
+        when(request.getDescription(false)).thenReturn("uri=/api/users/export");
+
+        var response = globalExceptionHandler.handleOperationNotSupported(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_IMPLEMENTED);
+        assertThat(response.getBody().status()).isEqualTo(501);
+        assertThat(response.getBody().message()).isEqualTo("User export is not supported while users are sharded");
+        assertThat(response.getBody().path()).isEqualTo("/api/users/export");
+    }
+
+    @Test
+    void handleServiceOverloaded_ShouldReturnServiceUnavailableStatus() {
+        ServiceOverloadedException ex = new ServiceOverloadedException("Timed out waiting for user update, retry later", null);
+        WebRequest request = mock(WebRequest.class);
+        when(request.getDescription(false)).thenReturn("uri=/api/users/1");
+
+        var response = globalExceptionHandler.handleServiceOverloaded(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getBody().status()).isEqualTo(503);
+        assertThat(response.getBody().error()).isEqualTo("Service Unavailable");
+        assertThat(response.getBody().path()).isEqualTo("/api/users/1");
+    }
+
+    @Test
+    void handleInvalidRequestParameter_ShouldReturnBadRequestStatus() {
+        InvalidRequestParameterException ex = new InvalidRequestParameterException("format", "xml");
+        WebRequest request = mock(WebRequest.class);
+        when(request.getDescription(false)).thenReturn("uri=/api/users/export");
+
+        var response = globalExceptionHandler.handleInvalidRequestParameter(ex, request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().status()).isEqualTo(400);
+        assertThat(response.getBody().error()).isEqualTo("Bad Request");
+        assertThat(response.getBody().message()).isEqualTo("Invalid value 'xml' for parameter 'format'");
+        assertThat(response.getBody().path()).isEqualTo("/api/users/export");
+        assertThat(response.getBody().details()).isEmpty();
+    }
+
     @Test
     void handleValidationExceptions_WithNonNullRejectedValue_ShouldReturnValidationErrorWithStringValue() {
         MethodArgumentNotValidException ex = mock(MethodArgumentNotValidException.class);
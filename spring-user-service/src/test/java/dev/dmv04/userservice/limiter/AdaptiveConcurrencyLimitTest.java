@@ -0,0 +1,92 @@
+package dev.dmv04.userservice.limiter;
+
+import dev.dmv04.userservice.config.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // каждое завершение запроса — отдельное окно, чтобы лимит пересчитывался детерминированно
+    private AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties(
+                null, null, Duration.ofSeconds(1), 1.5, 0.2, 600, Duration.ZERO, 1, 0.9);
+        return new AdaptiveConcurrencyLimit("read", new ConcurrencyLimitProperties.Limit(initial, min, max),
+                properties, meterRegistry);
+    }
+
+    @Test
+    void tryAcquire_shouldRejectAboveLimitAndReleaseOnce() {
+        AdaptiveConcurrencyLimit limit = limit(2, 1, 10);
+
+        AdaptiveConcurrencyLimit.Permit first = limit.tryAcquire();
+        AdaptiveConcurrencyLimit.Permit second = limit.tryAcquire();
+        assertThat(first).isNotNull();
+        assertThat(second).isNotNull();
+        assertThat(limit.tryAcquire()).isNull();
+        assertThat(meterRegistry.get("users.concurrency-limit.in-flight").tag("kind", "read").gauge().value())
+                .isEqualTo(2);
+
+        first.ignore();
+        first.success();
+        assertThat(limit.getInFlight()).isEqualTo(1);
+        assertThat(limit.tryAcquire()).isNotNull();
+        assertThat(meterRegistry.get("users.concurrency-limit.rejected").tag("kind", "read").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void risingLatency_shouldLowerLimitAndRecoveryShouldRaiseIt() {
+        AdaptiveConcurrencyLimit limit = limit(20, 4, 200);
+        for (int i = 0; i < 10; i++) {
+            limit.onSample(FAST, limit.getLimit(), false, System.nanoTime());
+        }
+        int saturatedLimit = limit.getLimit();
+        assertThat(saturatedLimit).isGreaterThan(20);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false, System.nanoTime());
+        }
+        int overloadedLimit = limit.getLimit();
+        assertThat(overloadedLimit).isBetween(4, 6);
+        assertThat(meterRegistry.get("users.concurrency-limit.limit").tag("kind", "read").gauge().value())
+                .isEqualTo(overloadedLimit);
+
+        for (int i = 0; i < 200; i++) {
+            limit.onSample(FAST, limit.getLimit(), false, System.nanoTime());
+        }
+        assertThat(limit.getLimit()).isGreaterThan(saturatedLimit);
+    }
+
+    @Test
+    void underusedLimit_shouldNotGrow() {
+        AdaptiveConcurrencyLimit limit = limit(20, 4, 200);
+
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 3, false, System.nanoTime());
+        }
+
+        assertThat(limit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    void overloadDrop_shouldBackOffMultiplicatively() {
+        AdaptiveConcurrencyLimit limit = limit(100, 4, 200);
+
+        limit.tryAcquire().dropped();
+
+        assertThat(limit.getLimit()).isEqualTo(90);
+        assertThat(limit.getInFlight()).isZero();
+        assertThat(meterRegistry.get("users.concurrency-limit.dropped").tag("kind", "read").counter().count())
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,146 @@
+package dev.dmv04.userservice.limiter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.dmv04.userservice.config.ConcurrencyLimitConfig;
+import dev.dmv04.userservice.config.ConcurrencyLimitProperties;
+import dev.dmv04.userservice.controller.UserController;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.lang.reflect.Method;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ConcurrencyLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AdaptiveConcurrencyLimit reads = limit("read");
+    private final AdaptiveConcurrencyLimit writes = limit("write");
+    private final ConcurrencyLimitInterceptor interceptor =
+            new ConcurrencyLimitInterceptor(reads, writes, Duration.ofMillis(1500), objectMapper);
+
+    private AdaptiveConcurrencyLimit limit(String kind) {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties(
+                null, null, Duration.ofSeconds(1), 1.5, 0.2, 600, Duration.ZERO, 1, 0.5);
+        return new AdaptiveConcurrencyLimit(kind, new ConcurrencyLimitProperties.Limit(2, 1, 2),
+                properties, meterRegistry);
+    }
+
+    @Test
+    void preHandle_shouldRejectReadsAboveLimitWith503AndRetryAfter() throws Exception {
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/users/1"),
+                new MockHttpServletResponse(), null)).isTrue();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/users/2"),
+                new MockHttpServletResponse(), null)).isTrue();
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/users/3"), rejected, null)).isFalse();
+
+        assertThat(rejected.getStatus()).isEqualTo(503);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("2");
+        JsonNode body = objectMapper.readTree(rejected.getContentAsByteArray());
+        assertThat(body.get("error").asText()).isEqualTo("Service Unavailable");
+        assertThat(body.get("path").asText()).isEqualTo("/api/users/3");
+
+        // записи ограничиваются своим лимитом
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/users"),
+                new MockHttpServletResponse(), null)).isTrue();
+        assertThat(reads.getInFlight()).isEqualTo(2);
+        assertThat(writes.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void afterCompletion_shouldTreatConnectionTimeoutAsOverload() throws Exception {
+        MockHttpServletRequest timedOut = new MockHttpServletRequest("PUT", "/api/users/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(timedOut, response, null);
+        response.setStatus(500);
+        timedOut.setAttribute(DispatcherServlet.EXCEPTION_ATTRIBUTE, new CannotCreateTransactionException(
+                "Could not open JPA EntityManager", new SQLTransientConnectionException("Connection is not available")));
+
+        interceptor.afterCompletion(timedOut, response, null, null);
+
+        assertThat(writes.getInFlight()).isZero();
+        assertThat(writes.getLimit()).isEqualTo(1);
+        assertThat(meterRegistry.get("users.concurrency-limit.dropped").tag("kind", "write").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void afterCompletion_shouldIgnoreOtherServerErrors() throws Exception {
+        MockHttpServletRequest failed = new MockHttpServletRequest("GET", "/api/users/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(failed, response, null);
+        response.setStatus(500);
+
+        interceptor.afterCompletion(failed, response, null, new JpaSystemException(new RuntimeException("bug")));
+        interceptor.afterCompletion(failed, response, null, null);
+
+        assertThat(reads.getInFlight()).isZero();
+        assertThat(reads.getLimit()).isEqualTo(2);
+        assertThat(meterRegistry.get("users.concurrency-limit.dropped").tag("kind", "read").counter().count())
+                .isZero();
+    }
+
+    @Test
+    void preHandle_shouldClassifyByControllerMethod() throws Exception {
+        MockHttpServletRequest lookup = new MockHttpServletRequest("POST", "/api/users/lookup");
+        assertThat(interceptor.preHandle(lookup, new MockHttpServletResponse(), handler("lookupUsers"))).isTrue();
+        assertThat(reads.getInFlight()).isEqualTo(1);
+        assertThat(writes.getInFlight()).isZero();
+
+        // массовое удаление на пути /api/users не занимает слот записи и не блокируется лимитом
+        for (int i = 0; i < 3; i++) {
+            assertThat(interceptor.preHandle(new MockHttpServletRequest("DELETE", "/api/users"),
+                    new MockHttpServletResponse(), handler("deleteUsers"))).isTrue();
+        }
+        assertThat(writes.getInFlight()).isZero();
+
+        // обычное создание на том же пути ограничивается лимитом записи
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("POST", "/api/users"),
+                new MockHttpServletResponse(), handler("createUser"))).isTrue();
+        assertThat(writes.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void mapping_shouldSkipBulkAndStreamingEndpoints() {
+        MappedInterceptor mapped = new MappedInterceptor(ConcurrencyLimitConfig.LIMITED_PATHS,
+                ConcurrencyLimitConfig.EXCLUDED_PATHS, interceptor);
+
+        assertThat(mapped.matches(request("GET", "/api/users"))).isTrue();
+        assertThat(mapped.matches(request("GET", "/api/users/1"))).isTrue();
+        assertThat(mapped.matches(request("POST", "/api/users/lookup"))).isTrue();
+        assertThat(mapped.matches(request("GET", "/api/users/export"))).isFalse();
+        assertThat(mapped.matches(request("POST", "/api/users/import"))).isFalse();
+        assertThat(mapped.matches(request("POST", "/api/users/batch"))).isFalse();
+        assertThat(mapped.matches(request("GET", "/api/users/error-test/500"))).isFalse();
+    }
+
+    private static HandlerMethod handler(String name) {
+        Method method = Arrays.stream(UserController.class.getMethods())
+                .filter(candidate -> candidate.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+        return new HandlerMethod(mock(UserController.class), method);
+    }
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        ServletRequestPathUtils.parseAndCache(request);
+        return request;
+    }
+}
@@ -0,0 +1,110 @@
+package dev.dmv04.userservice.producer;
+
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserEvent;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.repository.UserOutboxRepository;
+import dev.dmv04.userservice.repository.UserRepository;
+import dev.dmv04.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.poll-interval=1h"
+})
+class UserOutboxRelayTest {
+
+    @Autowired
+    private UserOutboxRelay userOutboxRelay;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserEventProducer userEventProducer;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userOutboxRepository.deleteAll();
+        clearInvocations(userEventProducer);
+        when(userEventProducer.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @Test
+    void createUser_shouldWriteEventToOutboxAndRelayItAfterCommit() {
+        UserDTO user = userService.createUser(new CreateUserRequest("Outbox", "outbox@test.com", 30));
+
+        verify(userEventProducer, never()).send(any());
+        assertThat(userOutboxRepository.findAll())
+                .singleElement()
+                .satisfies(event -> {
+                    assertThat(event.getAction()).isEqualTo(UserEvent.CREATE);
+                    assertThat(event.getUserId()).isEqualTo(user.id());
+                });
+
+        assertThat(userOutboxRelay.relayBatch()).isEqualTo(1);
+
+        verify(userEventProducer).send(new UserEvent("outbox@test.com", UserEvent.CREATE, user.id()));
+        assertThat(userOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    void rolledBackTransaction_shouldNotLeaveEventInOutbox() {
+        userService.createUser(new CreateUserRequest("Outbox", "outbox@test.com", 30));
+        userOutboxRepository.deleteAll();
+
+        assertThatThrownBy(() -> userService.createUser(new CreateUserRequest("Again", "outbox@test.com", 31)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+
+        assertThat(userOutboxRepository.count()).isZero();
+    }
+
+    @Test
+    void failedSend_shouldKeepEventForRetry() {
+        userService.createUser(new CreateUserRequest("Outbox", "outbox@test.com", 30));
+        double failuresBefore = meterRegistry.get("users.outbox.failures").counter().count();
+        when(userEventProducer.send(any()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker is down")));
+
+        assertThat(userOutboxRelay.relayBatch()).isZero();
+
+        assertThat(userOutboxRepository.count()).isEqualTo(1);
+        assertThat(meterRegistry.get("users.outbox.failures").counter().count() - failuresBefore).isEqualTo(1);
+
+        when(userEventProducer.send(any())).thenReturn(CompletableFuture.completedFuture(null));
+        assertThat(userOutboxRelay.relayBatch()).isEqualTo(1);
+        assertThat(userOutboxRepository.count()).isZero();
+    }
+}
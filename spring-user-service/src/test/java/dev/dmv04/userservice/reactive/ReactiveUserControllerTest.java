@@ -0,0 +1,275 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.endsWith;
+
+@SpringBootTest(classes = ReactiveUserServiceApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", ReactiveUserServiceApplication.PROFILE})
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.relay.enabled=false",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-users;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:reactive-schema.sql"
+})
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        databaseClient.sql("DELETE FROM user_outbox").then().block();
+    }
+
+    @Test
+    void createUser_shouldReturnCreatedUserWithLinksAndWriteOutboxEvent() {
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new CreateUserRequest("Иван", "ivan@example.com", 30))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueMatches(HttpHeaders.LOCATION, ".*/api/users/\\d+")
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Иван")
+                .jsonPath("$.email").isEqualTo("ivan@example.com")
+                .jsonPath("$.version").doesNotExist()
+                .jsonPath("$._links.self.href").value(endsWith("/api/users/" + userId("ivan@example.com")))
+                .jsonPath("$._links.all-users.href").value(endsWith("/api/users"));
+
+        assertThat(outboxActions("ivan@example.com")).containsExactly(UserEvent.CREATE);
+    }
+
+    @Test
+    void createUser_shouldRejectDuplicateEmailAndInvalidRequest() {
+        createUser("taken@example.com");
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new CreateUserRequest("Другой", "taken@example.com", 40))
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Conflict")
+                .jsonPath("$.path").isEqualTo("/api/users");
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new CreateUserRequest("", "not-an-email", 0))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation failed")
+                .jsonPath("$.details.length()").isEqualTo(3);
+
+        webTestClient.post().uri("/api/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"Без возраста\",\"email\":\"ageless@example.com\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.details[0].field").isEqualTo("age");
+
+        assertThat(outboxActions("taken@example.com")).containsExactly(UserEvent.CREATE);
+        assertThat(outboxActions("ageless@example.com")).isEmpty();
+    }
+
+    @Test
+    void binaryFormats_shouldBeRejectedAsServletOnly() {
+        long id = createUser("binary@example.com");
+
+        for (String format : List.of("application/cbor", "application/x-jackson-smile")) {
+            webTestClient.get().uri("/api/users/{id}", id)
+                    .accept(MediaType.parseMediaType(format))
+                    .exchange()
+                    .expectStatus().isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+        }
+    }
+
+    @Test
+    void getUserById_shouldHonourFieldsAndIfNoneMatch() {
+        long id = createUser("read@example.com");
+
+        webTestClient.get().uri("/api/users/{id}?fields=email&links=false", id)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0;fields=id,email;links=false\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(id)
+                .jsonPath("$.email").isEqualTo("read@example.com")
+                .jsonPath("$.name").doesNotExist()
+                .jsonPath("$._links").doesNotExist();
+
+        webTestClient.get().uri("/api/users/{id}", id)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get().uri("/api/users/{id}", id + 1_000_000)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getAllUsers_shouldPageByCursor() {
+        long first = createUser("page1@example.com");
+        long second = createUser("page2@example.com");
+        long third = createUser("page3@example.com");
+
+        webTestClient.get().uri("/api/users?limit=2")
+                .accept(MediaTypes.HAL_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.userDTOList.length()").isEqualTo(2)
+                .jsonPath("$._embedded.userDTOList[0].id").isEqualTo(first)
+                .jsonPath("$._links.next.href").value(endsWith("/api/users?after=" + second + "&limit=2"));
+
+        webTestClient.get().uri("/api/users?after={after}&limit=2", second)
+                .accept(MediaTypes.HAL_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.userDTOList.length()").isEqualTo(1)
+                .jsonPath("$._embedded.userDTOList[0].id").isEqualTo(third)
+                .jsonPath("$._links.next").doesNotExist();
+    }
+
+    @Test
+    void getAllUsers_shouldSelectOnlyRequestedFields() {
+        long first = createUser("sparse1@example.com");
+        createUser("sparse2@example.com");
+
+        webTestClient.get().uri("/api/users?fields=email&limit=1&links=false")
+                .accept(MediaTypes.HAL_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$._embedded.userDTOList.length()").isEqualTo(1)
+                .jsonPath("$._embedded.userDTOList[0].id").isEqualTo(first)
+                .jsonPath("$._embedded.userDTOList[0].email").isEqualTo("sparse1@example.com")
+                .jsonPath("$._embedded.userDTOList[0].name").doesNotExist()
+                .jsonPath("$._embedded.userDTOList[0].createdAt").doesNotExist();
+    }
+
+    @Test
+    void exportUsers_shouldStreamNdjsonAndCsv() {
+        long id = createUser("export@example.com");
+        webTestClient.put().uri("/api/users/{id}", id)
+                .bodyValue(new UpdateUserRequest("Doe, \"John\"", null, null))
+                .exchange()
+                .expectStatus().isOk();
+
+        String ndjson = webTestClient.get().uri("/api/users/export")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("application/x-ndjson")
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertThat(ndjson).startsWith("{\"id\":" + id + ",\"name\":\"Doe, \\\"John\\\"\",\"email\":\"export@example.com\",\"age\":25,")
+                .endsWith("\n");
+
+        String csv = webTestClient.get().uri("/api/users/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class).returnResult().getResponseBody();
+        assertThat(csv.lines().toList()).hasSize(2)
+                .first().isEqualTo("id,name,email,age,createdAt");
+        assertThat(csv.lines().toList().get(1)).startsWith(id + ",\"Doe, \"\"John\"\"\",export@example.com,25,");
+
+        webTestClient.get().uri("/api/users/export?format=xml")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void updateUser_shouldCheckIfMatchAndSkipUnchangedValues() {
+        long id = createUser("update@example.com");
+
+        webTestClient.put().uri("/api/users/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"5\"")
+                .bodyValue(new UpdateUserRequest("Новое имя", null, null))
+                .exchange()
+                .expectStatus().isEqualTo(412);
+
+        webTestClient.put().uri("/api/users/{id}", id)
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(new UpdateUserRequest("Новое имя", null, 31))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Новое имя")
+                .jsonPath("$.age").isEqualTo(31);
+
+        webTestClient.put().uri("/api/users/{id}", id)
+                .bodyValue(new UpdateUserRequest("Новое имя", null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        assertThat(outboxActions("update@example.com")).containsExactly(UserEvent.CREATE, UserEvent.UPDATE);
+    }
+
+    @Test
+    void deleteUser_shouldReturnNoContentAndPublishEvent() {
+        long id = createUser("delete@example.com");
+
+        webTestClient.delete().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueMatches("Link", "<.*/api/users>; rel=\"all-users\", <.*/api/users>; rel=\"create-user\"");
+
+        webTestClient.delete().uri("/api/users/{id}", id)
+                .exchange()
+                .expectStatus().isNotFound();
+
+        assertThat(outboxActions("delete@example.com")).containsExactly(UserEvent.CREATE, UserEvent.DELETE);
+    }
+
+    private long createUser(String email) {
+        webTestClient.post().uri("/api/users")
+                .bodyValue(new CreateUserRequest("Пользователь", email, 25))
+                .exchange()
+                .expectStatus().isCreated();
+        return userId(email);
+    }
+
+    private long userId(String email) {
+        return databaseClient.sql("SELECT id FROM users WHERE email = :email")
+                .bind("email", email)
+                .map(row -> row.get("id", Long.class))
+                .one()
+                .block();
+    }
+
+    private List<String> outboxActions(String email) {
+        return databaseClient.sql("SELECT action FROM user_outbox WHERE email = :email ORDER BY id")
+                .bind("email", email)
+                .fetch()
+                .all()
+                .map(row -> (String) row.get("action"))
+                .collectList()
+                .block();
+    }
+}
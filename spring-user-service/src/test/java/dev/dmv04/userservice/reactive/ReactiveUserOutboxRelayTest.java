@@ -0,0 +1,110 @@
+package dev.dmv04.userservice.reactive;
+
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserEvent;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import reactor.core.publisher.Flux;
+import reactor.kafka.sender.KafkaSender;
+import reactor.kafka.sender.SenderRecord;
+import reactor.kafka.sender.SenderResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(classes = ReactiveUserServiceApplication.class)
+@ActiveProfiles({"test", ReactiveUserServiceApplication.PROFILE})
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.poll-interval=1h",
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-outbox;DB_CLOSE_DELAY=-1",
+        "spring.sql.init.mode=always",
+        "spring.sql.init.schema-locations=classpath:reactive-schema.sql"
+})
+class ReactiveUserOutboxRelayTest {
+
+    @Autowired
+    private ReactiveUserOutboxRelay relay;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @MockBean
+    private KafkaSender<String, UserEvent> kafkaSender;
+
+    private final List<UserEvent> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        databaseClient.sql("DELETE FROM user_outbox").then().block();
+        sent.clear();
+        answerSends(null);
+    }
+
+    @Test
+    void relayBatch_shouldSendOutboxEventsAndDeleteThem() {
+        UserDTO user = userService.createUser(new CreateUserRequest("Outbox", "outbox@test.com", 30)).block();
+
+        assertThat(sent).isEmpty();
+        assertThat(outboxCount()).isEqualTo(1);
+
+        assertThat(relay.relayBatch().block()).isEqualTo(1);
+
+        assertThat(sent).containsExactly(new UserEvent("outbox@test.com", UserEvent.CREATE, user.id()));
+        assertThat(outboxCount()).isZero();
+    }
+
+    @Test
+    void failedSend_shouldKeepEventForRetry() {
+        userService.createUser(new CreateUserRequest("Outbox", "outbox@test.com", 30)).block();
+        answerSends(new IllegalStateException("broker is down"));
+
+        assertThat(relay.relayBatch().block()).isZero();
+        assertThat(outboxCount()).isEqualTo(1);
+
+        answerSends(null);
+        assertThat(relay.relayBatch().block()).isEqualTo(1);
+        assertThat(outboxCount()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void answerSends(Exception failure) {
+        doAnswer(invocation -> {
+            Publisher<SenderRecord<String, UserEvent, Object>> records = invocation.getArgument(0);
+            return Flux.from(records).map(record -> {
+                if (failure == null) {
+                    sent.add(record.value());
+                }
+                return new Result<>(null, failure, record.correlationMetadata());
+            });
+        }).when(kafkaSender).send(any());
+    }
+
+    private long outboxCount() {
+        return databaseClient.sql("SELECT count(*) AS cnt FROM user_outbox")
+                .map(row -> row.get("cnt", Long.class))
+                .one()
+                .block();
+    }
+
+    private record Result<T>(RecordMetadata recordMetadata, Exception exception, T correlationMetadata)
+            implements SenderResult<T> {
+    }
+}
@@ -1,14 +1,18 @@
 package dev.dmv04.userservice.repository;
 
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
 import dev.dmv04.userservice.entity.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -122,4 +126,68 @@ class UserRepositoryTest {
 
         assertThat(userRepository.findById(saved.getId())).isEmpty();
     }
+
+    @Test
+    void findDtoById_shouldProjectUserColumns() {
+        User user = new User();
+        user.setName("Dana");
+        user.setEmail("dana@test.com");
+        user.setAge(27);
+        user.setCreatedAt(LocalDateTime.now());
+        User saved = userRepository.save(user);
+
+        Optional<UserDTO> found = userRepository.findDtoById(saved.getId());
+
+        assertThat(found).isPresent();
+        assertThat(found.get().id()).isEqualTo(saved.getId());
+        assertThat(found.get().name()).isEqualTo("Dana");
+        assertThat(found.get().email()).isEqualTo("dana@test.com");
+        assertThat(found.get().age()).isEqualTo(27);
+        assertThat(found.get().createdAt()).isNotNull();
+    }
+
+    @Test
+    void findDtosAfter_shouldReturnNextPageInIdOrder() {
+        Long[] ids = new Long[3];
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setName("Page" + i);
+            user.setEmail("page" + i + "@test.com");
+            user.setAge(20 + i);
+            user.setCreatedAt(LocalDateTime.now());
+            ids[i] = userRepository.save(user).getId();
+        }
+
+        List<UserDTO> page = userRepository.findDtosAfter(ids[0], Limit.of(1));
+
+        assertThat(page).extracting(UserDTO::id).containsExactly(ids[1]);
+    }
+
+    @Test
+    void findSparseDtos_shouldSelectOnlyRequestedFields() {
+        Long[] ids = new Long[2];
+        for (int i = 0; i < 2; i++) {
+            User user = new User();
+            user.setName("Sparse" + i);
+            user.setEmail("sparse" + i + "@test.com");
+            user.setAge(20 + i);
+            user.setCreatedAt(LocalDateTime.now());
+            ids[i] = userRepository.save(user).getId();
+        }
+
+        List<UserDTO> page = userRepository.findSparseDtos(
+                EnumSet.of(UserField.ID, UserField.EMAIL), ids[0], Limit.of(10));
+
+        assertThat(page).hasSize(1);
+        assertThat(page.get(0).id()).isEqualTo(ids[1]);
+        assertThat(page.get(0).email()).isEqualTo("sparse1@test.com");
+        assertThat(page.get(0).name()).isNull();
+        assertThat(page.get(0).age()).isNull();
+        assertThat(page.get(0).createdAt()).isNull();
+
+        List<UserDTO> found = userRepository.findSparseDtosByIdIn(EnumSet.of(UserField.ID, UserField.AGE), List.of(ids[0]));
+
+        assertThat(found).extracting(UserDTO::age).containsExactly(20);
+        assertThat(found.get(0).email()).isNull();
+    }
 }
@@ -0,0 +1,159 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.group-commit.enabled=true",
+        "users.group-commit.max-wait=50ms"
+})
+class UserCreateBatcherTest {
+
+    @Autowired
+    private UserCreateBatcher userCreateBatcher;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanDatabase() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCreates_shouldBeCommittedTogetherWithPerCallerResults() throws Exception {
+        List<CreateUserRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            requests.add(new CreateUserRequest("Group" + i, "group" + i + "@test.com", 20 + i));
+        }
+        requests.add(new CreateUserRequest("Group duplicate", "group0@test.com", 40));
+
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        List<Future<UserDTO>> futures = new ArrayList<>();
+        try {
+            for (CreateUserRequest request : requests) {
+                futures.add(executor.submit(() -> userCreateBatcher.create(request)));
+            }
+
+            List<UserDTO> created = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<UserDTO> future : futures) {
+                try {
+                    created.add(future.get());
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+
+            assertThat(created).hasSize(10);
+            assertThat(created).extracting(UserDTO::id).doesNotContainNull().doesNotHaveDuplicates();
+            assertThat(failures).singleElement().isInstanceOf(EmailAlreadyExistsException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(userRepository.count()).isEqualTo(10);
+        DistributionSummary batchSizes = meterRegistry.get("users.group-commit.batch-size").summary();
+        assertThat(batchSizes.totalAmount()).isEqualTo(requests.size());
+        assertThat(batchSizes.count()).isLessThan(requests.size());
+        assertThat(meterRegistry.get("users.group-commit.wait").timer().count()).isEqualTo(requests.size());
+    }
+
+    @Test
+    void create_shouldFailBatchOnErrorAndKeepWorkerRunning() throws Exception {
+        UserBatchService userBatchService = mock(UserBatchService.class);
+        UserDTO user = new UserDTO(1L, "After", "after@test.com", 30, LocalDateTime.now(), 0L);
+        when(userBatchService.insertUsers(anyList()))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(List.of(Optional.of(user)));
+        UserCreateBatcher batcher = new UserCreateBatcher(userBatchService, 64, Duration.ZERO, 100,
+                Duration.ofSeconds(5), new SimpleMeterRegistry());
+        batcher.start();
+        try {
+            assertThatThrownBy(() -> batcher.create(new CreateUserRequest("Fail", "fail@test.com", 30)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasCauseInstanceOf(StackOverflowError.class);
+
+            assertThat(batcher.create(new CreateUserRequest("After", "after@test.com", 30))).isEqualTo(user);
+        } finally {
+            batcher.stop();
+        }
+    }
+
+    @Test
+    void create_shouldGiveUpAfterTimeoutAndSkipTheRequest() throws Exception {
+        UserBatchService userBatchService = mock(UserBatchService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<CreateUserRequest>> committed = new CopyOnWriteArrayList<>();
+        when(userBatchService.insertUsers(anyList())).thenAnswer(invocation -> {
+            List<CreateUserRequest> requests = List.copyOf(invocation.getArgument(0));
+            committed.add(requests);
+            release.await();
+            return requests.stream().map(request -> Optional.<UserDTO>empty()).toList();
+        });
+        UserCreateBatcher batcher = new UserCreateBatcher(userBatchService, 1, Duration.ZERO, 100,
+                Duration.ofMillis(200), new SimpleMeterRegistry());
+        batcher.start();
+        try {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            Future<UserDTO> stuck = executor.submit(() -> batcher.create(new CreateUserRequest("Stuck", "stuck@test.com", 30)));
+            while (committed.isEmpty()) {
+                Thread.sleep(5);
+            }
+
+            assertThatThrownBy(() -> batcher.create(new CreateUserRequest("Late", "late@test.com", 30)))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+            assertThatThrownBy(stuck::get).hasCauseInstanceOf(IllegalStateException.class);
+            executor.shutdown();
+
+            release.countDown();
+            // очередь FIFO: к моменту ответа на следующий запрос просроченный уже пропущен
+            assertThatThrownBy(() -> batcher.create(new CreateUserRequest("Next", "next@test.com", 30)))
+                    .isInstanceOf(EmailAlreadyExistsException.class);
+            assertThat(committed).extracting(requests -> requests.get(0).email())
+                    .containsExactly("stuck@test.com", "next@test.com");
+        } finally {
+            batcher.stop();
+        }
+    }
+}
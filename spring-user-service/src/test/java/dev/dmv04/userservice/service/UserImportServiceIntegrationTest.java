@@ -0,0 +1,136 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserImportResponse;
+import dev.dmv04.userservice.repository.UserOutboxRepository;
+import dev.dmv04.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Импорт через COPY доступен только в PostgreSQL, поэтому тест работает с контейнером.
+ * Импорт пакетами в H2 проверяет {@link UserImportServiceTest}.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.relay.enabled=false",
+        "users.import.chunk-size=2"
+})
+class UserImportServiceIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url",
+                () -> "jdbc:tc:postgresql:15:///testdb");
+        registry.add("spring.datasource.driver-class-name",
+                () -> "org.testcontainers.jdbc.ContainerDatabaseDriver");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+                () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @BeforeEach
+    void setUp() {
+        userOutboxRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importCsv_shouldCopyValidRowsAndSkipTakenEmails() throws IOException {
+        UserDTO existing = userService.createUser(new CreateUserRequest("Existing", "taken@example.com", 40));
+        userOutboxRepository.deleteAll();
+        String csv = """
+                age,name,email
+                30,"Doe, John",john@example.com
+                31,Jane,jane@example.com
+                not-a-number,Broken,broken@example.com
+                32,Taken,taken@example.com
+                33,Repeat,john@example.com
+                34,Last,last@example.com
+                """;
+
+        UserImportResponse response = userImportService.importUsers(stream(csv), UserImportService.Format.CSV);
+
+        assertThat(response.read()).isEqualTo(6);
+        assertThat(response.invalid()).isEqualTo(1);
+        assertThat(response.imported()).isEqualTo(3);
+        assertThat(response.skipped()).isEqualTo(2);
+        List<UserDTO> users = userService.getAllUsers();
+        assertThat(users).extracting(UserDTO::email)
+                .containsExactlyInAnyOrder("taken@example.com", "john@example.com", "jane@example.com",
+                        "last@example.com");
+        assertThat(users).filteredOn(user -> user.email().equals("john@example.com"))
+                .singleElement().extracting(UserDTO::name).isEqualTo("Doe, John");
+        assertThat(users).extracting(UserDTO::id).doesNotHaveDuplicates();
+        assertThat(users).filteredOn(user -> !user.id().equals(existing.id()))
+                .extracting(UserDTO::id).allMatch(id -> id > existing.id());
+        assertThat(userOutboxRepository.count()).isEqualTo(3);
+
+        // ID после импорта продолжают выдаваться из той же последовательности без пересечений
+        UserDTO created = userService.createUser(new CreateUserRequest("After", "after@example.com", 25));
+        assertThat(userService.getAllUsers()).extracting(UserDTO::id).doesNotHaveDuplicates().contains(created.id());
+    }
+
+    @Test
+    void importNdjson_shouldKeepCommittedChunksWhenStreamBreaks() {
+        String ndjson = """
+                {"name":"First","email":"first@example.com","age":20}
+                {"name":"Ageless","email":"ageless@example.com"}
+                {"name":"Second","email":"second@example.com","age":21}
+                {"name":"Third","email":"third@example.com","age":22}
+                """;
+        InputStream broken = new SequenceInputStream(stream(ndjson), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+        });
+
+        assertThatThrownBy(() -> userImportService.importUsers(broken, UserImportService.Format.NDJSON))
+                .isInstanceOf(IOException.class);
+
+        // первая часть из двух корректных строк зафиксирована, незавершённая вторая откатилась,
+        // строка без возраста пропущена как ошибочная, а не сорвала COPY
+        assertThat(userService.getAllUsers()).extracting(UserDTO::email)
+                .containsExactlyInAnyOrder("first@example.com", "second@example.com");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
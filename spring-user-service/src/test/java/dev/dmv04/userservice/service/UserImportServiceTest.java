@@ -0,0 +1,100 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserImportResponse;
+import dev.dmv04.userservice.repository.UserOutboxRepository;
+import dev.dmv04.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Импорт пакетами в H2, без контейнера. COPY в PostgreSQL проверяет {@link UserImportServiceIntegrationTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.relay.enabled=false",
+        "users.import.chunk-size=2"
+})
+class UserImportServiceTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserOutboxRepository userOutboxRepository;
+
+    @BeforeEach
+    void setUp() {
+        userOutboxRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importNdjson_shouldCountRowsWithoutAgeAsInvalid() throws IOException {
+        userService.createUser(new CreateUserRequest("Existing", "taken@example.com", 40));
+        userOutboxRepository.deleteAll();
+        String ndjson = """
+                {"name":"First","email":"first@example.com","age":20}
+                {"name":"Ageless","email":"ageless@example.com"}
+                {"name":"Null age","email":"null-age@example.com","age":null}
+                not json
+                {"name":"Taken","email":"taken@example.com","age":30}
+                {"name":"Last","email":"last@example.com","age":21}
+                """;
+
+        UserImportResponse response = userImportService.importUsers(stream(ndjson), UserImportService.Format.NDJSON);
+
+        assertThat(response.read()).isEqualTo(6);
+        assertThat(response.invalid()).isEqualTo(3);
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(response.skipped()).isEqualTo(1);
+        assertThat(userService.getAllUsers()).extracting(UserDTO::email)
+                .containsExactlyInAnyOrder("taken@example.com", "first@example.com", "last@example.com");
+        assertThat(userOutboxRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void importCsv_shouldCountRowsWithEmptyAgeAsInvalid() throws IOException {
+        String csv = """
+                name,email,age
+                First,first@example.com,20
+                Ageless,ageless@example.com,
+                Second,second@example.com,21
+                """;
+
+        UserImportResponse response = userImportService.importUsers(stream(csv), UserImportService.Format.CSV);
+
+        assertThat(response.read()).isEqualTo(3);
+        assertThat(response.invalid()).isEqualTo(1);
+        assertThat(response.imported()).isEqualTo(2);
+        assertThat(userService.getAllUsers()).extracting(UserDTO::email)
+                .containsExactlyInAnyOrder("first@example.com", "second@example.com");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -6,6 +6,8 @@ import dev.dmv04.userservice.dto.UserDTO;
 import dev.dmv04.userservice.dto.UserEvent;
 import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
 import dev.dmv04.userservice.exception.UserNotFoundException;
+import dev.dmv04.userservice.entity.User;
+import dev.dmv04.userservice.repository.UserIdSequenceAligner;
 import dev.dmv04.userservice.repository.UserRepository;
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
@@ -14,6 +16,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.kafka.test.utils.KafkaTestUtils;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
@@ -25,6 +28,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static dev.dmv04.userservice.util.KafkaTestConsumerUtil.createConsumerForUserEvent;
@@ -50,6 +54,12 @@ class UserServiceIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserIdSequenceAligner userIdSequenceAligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.kafka.bootstrap-servers", kafka::getBootstrapServers);
@@ -308,6 +318,19 @@ class UserServiceIntegrationTest {
                 .hasMessageContaining("Email 'same@example.com' already exists");
     }
 
+    @Test
+    void shouldMoveIdSequencePastRowsInsertedAroundIt() {
+        long legacyId = 1_000_000L;
+        jdbcTemplate.update("INSERT INTO users (id, name, email, age, created_at, version) VALUES (?, ?, ?, ?, ?, 0)",
+                legacyId, "Legacy", "legacy@example.com", 40, LocalDateTime.now());
+
+        userIdSequenceAligner.align();
+
+        // pooled-оптимизатор выдаёт ID (value - allocationSize, value]
+        Long value = jdbcTemplate.queryForObject("SELECT nextval('users_seq')", Long.class);
+        assertThat(value - User.ID_ALLOCATION_SIZE).isGreaterThanOrEqualTo(legacyId);
+    }
+
     @Test
     void shouldThrowUserNotFoundExceptionWhenDeletingNonExistentUser() {
         assertThatThrownBy(() -> userService.deleteUser(999L))
@@ -0,0 +1,162 @@
+package dev.dmv04.userservice.service;
+
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.ServiceOverloadedException;
+import dev.dmv04.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.update-coalescing.enabled=true",
+        "users.update-coalescing.window=100ms"
+})
+class UserUpdateCoalescerTest {
+
+    @Autowired
+    private UserUpdateCoalescer userUpdateCoalescer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanDatabase() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentUpdates_shouldBeMergedIntoOneWriteWithSameResult() throws Exception {
+        UserDTO user = userService.createUser(new CreateUserRequest("Hot", "hot@test.com", 20));
+        double absorbedBefore = meterRegistry.get("users.update-coalescing.absorbed").counter().count();
+
+        List<UserDTO> results = runConcurrently(user.id(), List.of(
+                new UpdateUserRequest(null, null, 21),
+                new UpdateUserRequest("Hotter", null, null),
+                new UpdateUserRequest(null, null, 22)
+        ));
+
+        assertThat(results).hasSize(3);
+        assertThat(results).allSatisfy(result -> {
+            assertThat(result.name()).isEqualTo("Hotter");
+            assertThat(result.version()).isEqualTo(1L);
+        });
+        assertThat(results).extracting(UserDTO::age).containsOnly(results.get(0).age());
+        assertThat(meterRegistry.get("users.update-coalescing.absorbed").counter().count() - absorbedBefore)
+                .isEqualTo(2);
+        assertThat(userRepository.findById(user.id())).get()
+                .satisfies(saved -> {
+                    assertThat(saved.getName()).isEqualTo("Hotter");
+                    assertThat(saved.getVersion()).isEqualTo(1L);
+                });
+    }
+
+    @Test
+    void mergedEmailConflict_shouldFailOnlyConflictingUpdate() throws Exception {
+        userService.createUser(new CreateUserRequest("Owner", "owner@test.com", 30));
+        UserDTO user = userService.createUser(new CreateUserRequest("Hot", "hot@test.com", 20));
+        double writesBefore = meterRegistry.get("users.update-coalescing.writes").counter().count();
+
+        List<Object> outcomes = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<UserDTO> ageUpdate = executor.submit(
+                    () -> userUpdateCoalescer.update(user.id(), new UpdateUserRequest(null, null, 25)));
+            Future<UserDTO> emailUpdate = executor.submit(
+                    () -> userUpdateCoalescer.update(user.id(), new UpdateUserRequest(null, "owner@test.com", null)));
+            outcomes.add(ageUpdate.get());
+            try {
+                outcomes.add(emailUpdate.get());
+            } catch (ExecutionException e) {
+                outcomes.add(e.getCause());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(outcomes.get(0)).isInstanceOf(UserDTO.class);
+        assertThat(((UserDTO) outcomes.get(0)).age()).isEqualTo(25);
+        assertThat(outcomes.get(1)).isInstanceOf(EmailAlreadyExistsException.class);
+        // отклонённые записи не считаются
+        assertThat(meterRegistry.get("users.update-coalescing.writes").counter().count() - writesBefore)
+                .isEqualTo(1);
+    }
+
+    @Test
+    void update_shouldGiveUpAfterTimeoutWithOverloadError() throws Exception {
+        UserService slowService = mock(UserService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        UserDTO user = new UserDTO(1L, "Slow", "slow@test.com", 30, LocalDateTime.now(), 1L);
+        when(slowService.updateUser(eq(1L), any())).thenAnswer(invocation -> {
+            release.await();
+            return user;
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        UserUpdateCoalescer coalescer = new UserUpdateCoalescer(slowService, Duration.ZERO, 1,
+                Duration.ofMillis(200), registry);
+        try {
+            assertThatThrownBy(() -> coalescer.update(1L, new UpdateUserRequest(null, null, 31)))
+                    .isInstanceOf(ServiceOverloadedException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+            assertThat(registry.get("users.update-coalescing.writes").counter().count()).isZero();
+        } finally {
+            release.countDown();
+            coalescer.stop();
+        }
+        assertThat(registry.get("users.update-coalescing.writes").counter().count()).isEqualTo(1);
+    }
+
+    private List<UserDTO> runConcurrently(Long id, List<UpdateUserRequest> requests) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(requests.size());
+        try {
+            List<Future<UserDTO>> futures = new ArrayList<>();
+            for (UpdateUserRequest request : requests) {
+                futures.add(executor.submit(() -> userUpdateCoalescer.update(id, request)));
+            }
+            List<UserDTO> results = new ArrayList<>();
+            for (Future<UserDTO> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
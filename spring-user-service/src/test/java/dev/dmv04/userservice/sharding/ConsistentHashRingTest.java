@@ -0,0 +1,44 @@
+package dev.dmv04.userservice.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 100_000;
+
+    @Test
+    void shardFor_shouldSpreadSequentialIdsEvenly() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c", "d"), 160);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (long id = 1; id <= KEYS; id++) {
+            counts.merge(ring.shardFor(id), 1, Integer::sum);
+        }
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10));
+    }
+
+    @Test
+    void shardFor_shouldMoveOnlyKeysOfAddedShard() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 160);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 160);
+
+        int moved = 0;
+        for (long id = 1; id <= KEYS; id++) {
+            String target = after.shardFor(id);
+            if (!target.equals(before.shardFor(id))) {
+                assertThat(target).isEqualTo("d");
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(KEYS / 4 * 8 / 10, KEYS / 4 * 12 / 10);
+    }
+}
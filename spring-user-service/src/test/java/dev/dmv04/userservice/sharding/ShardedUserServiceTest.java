@@ -0,0 +1,194 @@
+package dev.dmv04.userservice.sharding;
+
+import dev.dmv04.userservice.config.TestConfig;
+import dev.dmv04.userservice.dto.CreateUserRequest;
+import dev.dmv04.userservice.dto.UpdateUserRequest;
+import dev.dmv04.userservice.dto.UserDTO;
+import dev.dmv04.userservice.dto.UserField;
+import dev.dmv04.userservice.exception.EmailAlreadyExistsException;
+import dev.dmv04.userservice.exception.InvalidRequestParameterException;
+import dev.dmv04.userservice.exception.OperationNotSupportedException;
+import dev.dmv04.userservice.exception.UserNotFoundException;
+import dev.dmv04.userservice.service.UserBatchService;
+import dev.dmv04.userservice.service.UserService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestConfig.class)
+@TestPropertySource(properties = {
+        "spring.cloud.config.enabled=false",
+        "users.outbox.relay.enabled=false",
+        "users.sharding.enabled=true",
+        "users.sharding.node-id=1",
+        "users.sharding.datasources[0].name=shard1",
+        "users.sharding.datasources[0].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "users.sharding.datasources[0].username=sa",
+        "users.sharding.datasources[1].name=shard2",
+        "users.sharding.datasources[1].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "users.sharding.datasources[1].username=sa"
+})
+class ShardedUserServiceTest {
+
+    private static final List<String> SHARDS = List.of("shard1", "shard2");
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserBatchService userBatchService;
+
+    @Autowired
+    private ShardedUserRepository shardedUserRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void createShards() throws SQLException {
+        for (String shard : SHARDS) {
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                        + "email VARCHAR(255) NOT NULL, age INT NOT NULL, created_at TIMESTAMP NOT NULL, "
+                        + "version BIGINT DEFAULT 0 NOT NULL)");
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        for (String shard : SHARDS) {
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+                 Statement statement = connection.createStatement()) {
+                statement.execute("DELETE FROM users");
+            }
+        }
+        jdbcTemplate.update("DELETE FROM user_email_index");
+    }
+
+    @Test
+    void users_shouldBeSpreadAcrossShardsAndListedInIdOrder() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            ids.add(userService.createUser(new CreateUserRequest("User " + i, "user" + i + "@example.com", 20 + i)).id());
+        }
+
+        assertThat(ids).isSorted();
+        assertThat(ids).extracting(shardedUserRepository::shardFor).containsOnly("shard1", "shard2")
+                .contains("shard1", "shard2");
+        assertThat(userService.getAllUsers()).extracting(UserDTO::id).containsExactlyElementsOf(ids);
+        assertThat(userService.getUsersAfter(ids.get(4), 5, EnumSet.of(UserField.ID, UserField.EMAIL)))
+                .extracting(UserDTO::id, UserDTO::email, UserDTO::name)
+                .containsExactly(
+                        tuple(ids.get(5), "user5@example.com", null), tuple(ids.get(6), "user6@example.com", null),
+                        tuple(ids.get(7), "user7@example.com", null), tuple(ids.get(8), "user8@example.com", null),
+                        tuple(ids.get(9), "user9@example.com", null));
+        assertThat(userService.getUsersByIds(List.of(ids.get(3), ids.get(0), 42L)))
+                .extracting(UserDTO::email)
+                .containsExactly("user3@example.com", "user0@example.com");
+    }
+
+    @Test
+    void email_shouldStayUniqueAcrossShards() {
+        UserDTO first = userService.createUser(new CreateUserRequest("First", "first@example.com", 30));
+        UserDTO second = userService.createUser(new CreateUserRequest("Second", "second@example.com", 31));
+
+        assertThatThrownBy(() -> userService.createUser(new CreateUserRequest("Copy", "first@example.com", 32)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        assertThatThrownBy(() -> userService.updateUser(second.id(), new UpdateUserRequest(null, "first@example.com", null)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        assertThat(userService.getUserById(second.id()).email()).isEqualTo("second@example.com");
+
+        UserDTO updated = userService.updateUser(first.id(), new UpdateUserRequest(null, "renamed@example.com", null));
+        assertThat(updated.version()).isEqualTo(1L);
+        assertThat(shardedUserRepository.existsByEmail("first@example.com")).isFalse();
+        assertThat(shardedUserRepository.existsByEmail("renamed@example.com")).isTrue();
+
+        userService.deleteUser(first.id());
+        assertThatThrownBy(() -> userService.getUserById(first.id())).isInstanceOf(UserNotFoundException.class);
+        assertThat(shardedUserRepository.existsByEmail("renamed@example.com")).isFalse();
+        assertThat(userService.createUser(new CreateUserRequest("Again", "renamed@example.com", 33)).email())
+                .isEqualTo("renamed@example.com");
+    }
+
+    @Test
+    void rollbackAfterShardWrite_shouldUndoShardAndIndexTogether() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        UserDTO kept = userService.createUser(new CreateUserRequest("Kept", "kept@example.com", 30));
+
+        Long rolledBackId = transactionTemplate.execute(status -> {
+            UserDTO created = userService.createUser(new CreateUserRequest("Ghost", "ghost@example.com", 31));
+            userService.updateUser(kept.id(), new UpdateUserRequest("Renamed", "renamed@example.com", null));
+            status.setRollbackOnly();
+            return created.id();
+        });
+        assertThat(countInShards(rolledBackId)).isZero();
+        assertThat(shardedUserRepository.existsByEmail("ghost@example.com")).isFalse();
+        assertThat(shardedUserRepository.existsByEmail("renamed@example.com")).isFalse();
+        assertThat(userService.getUserById(kept.id()))
+                .extracting(UserDTO::name, UserDTO::email, UserDTO::version)
+                .containsExactly("Kept", "kept@example.com", 0L);
+
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> {
+            userService.deleteUser(kept.id());
+            throw new IllegalStateException("Failure after shard write");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(countInShards(kept.id())).isEqualTo(1);
+        assertThat(shardedUserRepository.existsByEmail("kept@example.com")).isTrue();
+    }
+
+    @Test
+    void createUser_withoutAge_shouldBeRejectedBeforeWrite() {
+        assertThatThrownBy(() -> userService.createUser(new CreateUserRequest("Ageless", "ageless@example.com", null)))
+                .isInstanceOf(InvalidRequestParameterException.class);
+        assertThat(shardedUserRepository.existsByEmail("ageless@example.com")).isFalse();
+    }
+
+    @Test
+    void batchCreation_shouldBeRejectedWhileSharded() {
+        assertThatThrownBy(() -> userBatchService.createUsers(List.of(new CreateUserRequest("Batch", "batch@example.com", 30))))
+                .isInstanceOf(OperationNotSupportedException.class);
+    }
+
+    private static int countInShards(long id) {
+        int count = 0;
+        for (String shard : SHARDS) {
+            try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM users WHERE id = " + id)) {
+                resultSet.next();
+                count += resultSet.getInt(1);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,22 @@
+package dev.dmv04.userservice.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SnowflakeIdGeneratorTest {
+
+    @Test
+    void nextId_shouldBeStrictlyIncreasingAndCarryNodeId() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5);
+
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous);
+            assertThat((id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & ((1 << SnowflakeIdGenerator.NODE_BITS) - 1))
+                    .isEqualTo(5);
+            previous = id;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+-- Схема для тестов реактивного стека: в сервлетном её создаёт Hibernate (ddl-auto)
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS user_outbox_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL CONSTRAINT users_email_key UNIQUE,
+    age INTEGER NOT NULL,
+    created_at TIMESTAMP(6) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL
+);
+CREATE TABLE IF NOT EXISTS user_outbox (
+    id BIGINT PRIMARY KEY,
+    email VARCHAR(255) NOT NULL,
+    action VARCHAR(16) NOT NULL,
+    user_id BIGINT,
+    created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);